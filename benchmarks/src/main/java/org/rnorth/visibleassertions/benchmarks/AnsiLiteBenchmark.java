@@ -0,0 +1,71 @@
+package org.rnorth.visibleassertions.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rnorth.ansi.AnsiLite;
+import org.rnorth.ansi.Style;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.rnorth.ansi.AnsiLite.*;
+
+/**
+ * Formatting of simple and nested {@link AnsiLite} values, and combined {@link Style}s, to strings.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnsiLiteBenchmark {
+
+    @Param({"true", "false"})
+    public boolean ansi;
+
+    private String message = "The quick brown fox";
+    private Style combinedStyle = Style.WHITE.and(Style.BRIGHT);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty("visibleassertions.ansi.enabled", String.valueOf(ansi));
+        AnsiLite.resetCapabilities();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.clearProperty("visibleassertions.ansi.enabled");
+        AnsiLite.resetCapabilities();
+    }
+
+    @Benchmark
+    public String simple() {
+        return green(message).toString();
+    }
+
+    @Benchmark
+    public String nested() {
+        return white(bright("i " + message)).toString();
+    }
+
+    @Benchmark
+    public String combinedStyle() {
+        return combinedStyle.apply("i " + message);
+    }
+
+    @Benchmark
+    public String complexNesting() {
+        return green("Hello ", underline(message), " again").toString();
+    }
+}
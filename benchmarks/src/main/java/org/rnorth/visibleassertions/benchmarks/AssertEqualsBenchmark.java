@@ -0,0 +1,46 @@
+package org.rnorth.visibleassertions.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.rnorth.visibleassertions.VisibleAssertions.assertEquals;
+
+/**
+ * Passing and failing {@code assertEquals}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssertEqualsBenchmark {
+
+    private String expected = "The quick brown fox";
+    private String sameValue = new String("The quick brown fox");
+    private String differentValue = "The quick brown dog";
+
+    @Benchmark
+    public void passing(OutputSettings settings) {
+        assertEquals("the values are equal", expected, sameValue);
+    }
+
+    @Benchmark
+    public AssertionError failing(OutputSettings settings) {
+        try {
+            assertEquals("the values are equal", expected, differentValue);
+            return null;
+        } catch (AssertionError e) {
+            return e;
+        }
+    }
+}
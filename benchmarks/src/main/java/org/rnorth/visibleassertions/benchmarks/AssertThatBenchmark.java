@@ -0,0 +1,54 @@
+package org.rnorth.visibleassertions.benchmarks;
+
+import org.hamcrest.Matcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.rnorth.visibleassertions.VisibleAssertions.assertThat;
+
+/**
+ * {@code assertThat} with Hamcrest matchers, both freshly built on each call and reused.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssertThatBenchmark {
+
+    private String actual = "The quick brown fox";
+    private Matcher<String> reusedMatcher = containsString("brown");
+
+    @Benchmark
+    public void passingNewMatcher(OutputSettings settings) {
+        assertThat("the value", actual, is(equalTo("The quick brown fox")));
+    }
+
+    @Benchmark
+    public void passingReusedMatcher(OutputSettings settings) {
+        assertThat("the value", actual, reusedMatcher);
+    }
+
+    @Benchmark
+    public AssertionError failing(OutputSettings settings) {
+        try {
+            assertThat("the value", actual, is(equalTo("The quick brown dog")));
+            return null;
+        } catch (AssertionError e) {
+            return e;
+        }
+    }
+}
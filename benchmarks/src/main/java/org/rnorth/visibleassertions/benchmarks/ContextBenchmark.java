@@ -0,0 +1,34 @@
+package org.rnorth.visibleassertions.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.rnorth.visibleassertions.VisibleAssertions.context;
+
+/**
+ * Rendering of {@code context()} divider lines.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContextBenchmark {
+
+    @Benchmark
+    public void plainContext(OutputSettings settings) {
+        context("Checking the shopping cart");
+    }
+
+    @Benchmark
+    public void indentedContext(OutputSettings settings) {
+        context("Checking the shopping cart", 4);
+    }
+}
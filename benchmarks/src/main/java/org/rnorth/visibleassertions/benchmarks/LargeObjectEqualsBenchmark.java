@@ -0,0 +1,64 @@
+package org.rnorth.visibleassertions.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rnorth.visibleassertions.VisibleAssertions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Passing equality checks on large objects, comparing an eagerly built failure hint (the behaviour before hints were
+ * built lazily) with the library's {@code assertEquals}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LargeObjectEqualsBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private List<Integer> expected;
+    private List<Integer> actual;
+
+    @Setup(Level.Trial)
+    public void setUp(OutputSettings settings) {
+        expected = new ArrayList<>();
+        actual = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            expected.add(i);
+            actual.add(i);
+        }
+    }
+
+    @Benchmark
+    public void eagerHint(OutputSettings settings) {
+        String expectedInQuotes = "'" + expected + "'";
+        String actualInQuotes = "'" + actual + "'";
+        if (expected.equals(actual)) {
+            VisibleAssertions.pass("large lists are equal");
+        } else {
+            VisibleAssertions.fail("large lists are equal", actualInQuotes + " does not equal expected " + expectedInQuotes);
+        }
+    }
+
+    @Benchmark
+    public void lazyHint(OutputSettings settings) {
+        VisibleAssertions.assertEquals("large lists are equal", expected, actual);
+    }
+}
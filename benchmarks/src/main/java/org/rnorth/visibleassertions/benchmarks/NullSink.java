@@ -0,0 +1,19 @@
+package org.rnorth.visibleassertions.benchmarks;
+
+import org.rnorth.visibleassertions.OutputSink;
+
+/**
+ * Output sink which discards everything, so that benchmarks measure formatting rather than I/O.
+ */
+public class NullSink implements OutputSink {
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        // Discard
+    }
+
+    @Override
+    public void flush() {
+        // Nothing to do
+    }
+}
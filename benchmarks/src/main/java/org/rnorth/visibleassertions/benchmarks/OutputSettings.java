@@ -0,0 +1,40 @@
+package org.rnorth.visibleassertions.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.rnorth.visibleassertions.StdOutSink;
+import org.rnorth.visibleassertions.VisibleAssertions;
+
+/**
+ * Shared ANSI and output configuration for benchmarks.
+ */
+@State(Scope.Benchmark)
+public class OutputSettings {
+
+    @Param({"true", "false"})
+    public boolean ansi;
+
+    @Param({"null", "stdout", "silenced"})
+    public String output;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty("visibleassertions.ansi.enabled", String.valueOf(ansi));
+        System.setProperty("visibleassertions.silence", String.valueOf("silenced".equals(output)));
+        VisibleAssertions.reconfigure();
+
+        VisibleAssertions.setOutputSink("stdout".equals(output) ? new StdOutSink() : new NullSink());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.clearProperty("visibleassertions.ansi.enabled");
+        System.clearProperty("visibleassertions.silence");
+        VisibleAssertions.reconfigure();
+        VisibleAssertions.setOutputSink(new StdOutSink());
+    }
+}
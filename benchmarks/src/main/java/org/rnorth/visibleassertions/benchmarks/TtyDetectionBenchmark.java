@@ -0,0 +1,45 @@
+package org.rnorth.visibleassertions.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rnorth.ansi.CapabilityDetection;
+import org.rnorth.ansi.TtyDetection;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the first TTY check in a fresh JVM, including class loading and (for JNA) native library extraction and
+ * linking. Each fork measures a single cold call, so run with enough forks to average out JVM noise.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class TtyDetectionBenchmark {
+
+    @Benchmark
+    public Boolean procFs() {
+        return TtyDetection.PROC_FS.detect();
+    }
+
+    @Benchmark
+    public Boolean console() {
+        return TtyDetection.CONSOLE.detect();
+    }
+
+    @Benchmark
+    public Boolean jna() {
+        return TtyDetection.NATIVE.detect();
+    }
+
+    @Benchmark
+    public boolean isTty() {
+        return CapabilityDetection.isTty();
+    }
+}
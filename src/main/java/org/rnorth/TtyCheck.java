@@ -2,8 +2,8 @@ package org.rnorth;
 
 import org.rnorth.ansi.CapabilityDetection;
 
-import static org.rnorth.ansi.AnsiLite.green;
 import static org.rnorth.visibleassertions.VisibleAssertions.info;
+import static org.rnorth.visibleassertions.VisibleAssertions.pass;
 
 /**
  * Simple class for manual testing (direct execution)
@@ -15,6 +15,6 @@ public class TtyCheck {
         info("isUnderMaven=" + CapabilityDetection.isUnderMaven());
         info("isUnderIDEA=" + CapabilityDetection.isUnderIDEA());
 
-        System.out.println(green("This text will be green if ANSI output is enabled"));
+        pass("This text will be green if ANSI output is enabled");
     }
 }
@@ -0,0 +1,292 @@
+package org.rnorth.ansi;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Builds styled output directly as bytes in a reusable buffer, ready to be written to an {@link OutputStream} or
+ * {@link ByteBuffer} without any further encoding.
+ * <p>
+ * Escape sequences for each {@link Style} are encoded once, when the style is created, and frequently repeated text
+ * such as mark glyphs can be encoded once with {@link #encode(String)} and then appended as bytes. Other text is
+ * encoded as it is appended; for UTF-8 this is done without a {@link CharsetEncoder}.
+ * <p>
+ * Once the buffer has grown to fit the longest output seen, appending does not allocate. Instances are not thread
+ * safe.
+ */
+public final class AnsiEncoder {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final Charset charset;
+    private final boolean utf8;
+    private final boolean asciiCompatible;
+    private final CharsetEncoder encoder;
+
+    private byte[] bytes;
+    private int length;
+    /* Wraps bytes, for charsets which need a CharsetEncoder; replaced whenever bytes is */
+    private ByteBuffer byteBuffer;
+
+    /* Scratch space for charsets which need a CharsetEncoder */
+    private char[] chars;
+    private CharBuffer charBuffer;
+
+    /**
+     * Create an encoder which produces UTF-8.
+     */
+    public AnsiEncoder() {
+        this(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Create an encoder which produces a particular charset. Unmappable characters are replaced.
+     *
+     * @param charset charset to encode text in
+     */
+    public AnsiEncoder(Charset charset) {
+        this.charset = charset;
+        this.utf8 = StandardCharsets.UTF_8.equals(charset);
+        this.asciiCompatible = utf8 || Arrays.equals(Style.RED.escapeBytes(), Style.RED.escape().getBytes(charset));
+        this.encoder = utf8 ? null : charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Encode text once, so that it can be appended repeatedly with {@link #append(byte[])}.
+     *
+     * @param s text to encode
+     * @return the text encoded in this encoder's charset
+     */
+    public byte[] encode(String s) {
+        return s.getBytes(charset);
+    }
+
+    /**
+     * Append the escape sequence which starts a style, if ANSI output is enabled.
+     *
+     * @param style the style to start
+     * @return this encoder
+     */
+    public AnsiEncoder start(Style style) {
+        if (style.hasCodes() && AnsiLite.isEnabled()) {
+            if (asciiCompatible) {
+                append(style.escapeBytes());
+            } else {
+                append(style.escape());
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Append the escape sequence which ends a style, if ANSI output is enabled.
+     *
+     * @param style the style to end
+     * @return this encoder
+     */
+    public AnsiEncoder end(Style style) {
+        if (style.hasCodes() && AnsiLite.isEnabled()) {
+            if (asciiCompatible) {
+                append(Style.RESET_BYTES);
+            } else {
+                append(AnsiLite.RESET);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Append text in a style.
+     *
+     * @param style the style to render the text in
+     * @param text  the text to append
+     * @return this encoder
+     */
+    public AnsiEncoder append(Style style, CharSequence text) {
+        return start(style).append(text).end(style);
+    }
+
+    /**
+     * Append pre-encoded bytes, e.g. as produced by {@link #encode(String)}.
+     *
+     * @param encoded bytes to append
+     * @return this encoder
+     */
+    public AnsiEncoder append(byte[] encoded) {
+        ensureCapacity(encoded.length);
+        System.arraycopy(encoded, 0, bytes, length, encoded.length);
+        length += encoded.length;
+        return this;
+    }
+
+    /**
+     * Append pre-encoded bytes a number of times, e.g. to draw a line of glyphs.
+     *
+     * @param encoded bytes to append
+     * @param times   number of times to append them
+     * @return this encoder
+     */
+    public AnsiEncoder append(byte[] encoded, int times) {
+        if (times <= 0) {
+            return this;
+        }
+        ensureCapacity(encoded.length * times);
+        for (int i = 0; i < times; i++) {
+            System.arraycopy(encoded, 0, bytes, length, encoded.length);
+            length += encoded.length;
+        }
+        return this;
+    }
+
+    /**
+     * Append text, encoding it in this encoder's charset.
+     *
+     * @param text the text to append
+     * @return this encoder
+     */
+    public AnsiEncoder append(CharSequence text) {
+        if (utf8) {
+            appendUtf8(text);
+        } else {
+            appendEncoded(text);
+        }
+        return this;
+    }
+
+    /**
+     * @return the buffer holding the bytes appended so far, from index 0 to {@link #length()}. The buffer is reused, so
+     * is only valid until the next change to this encoder.
+     */
+    public byte[] array() {
+        return bytes;
+    }
+
+    /**
+     * @return the number of bytes appended so far
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Discard everything appended so far, keeping the buffer for reuse.
+     *
+     * @return this encoder
+     */
+    public AnsiEncoder clear() {
+        length = 0;
+        return this;
+    }
+
+    /**
+     * Write everything appended so far to a stream.
+     *
+     * @param out the stream to write to
+     * @throws IOException if the stream cannot be written to
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, length);
+    }
+
+    /**
+     * Copy everything appended so far into a buffer.
+     *
+     * @param buffer the buffer to copy into
+     * @throws java.nio.BufferOverflowException if the buffer does not have enough space remaining
+     */
+    public void writeTo(ByteBuffer buffer) {
+        buffer.put(bytes, 0, length);
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, 0, length, charset);
+    }
+
+    private void appendUtf8(CharSequence text) {
+        int count = text.length();
+        // A char never needs more than 3 bytes; a surrogate pair needs 4 bytes for 2 chars
+        ensureCapacity(count * 3);
+
+        byte[] b = bytes;
+        int p = length;
+        for (int i = 0; i < count; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                b[p++] = (byte) c;
+            } else if (c < 0x800) {
+                b[p++] = (byte) (0xC0 | (c >> 6));
+                b[p++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                char low;
+                if (Character.isHighSurrogate(c) && i + 1 < count && Character.isLowSurrogate(low = text.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, low);
+                    b[p++] = (byte) (0xF0 | (codePoint >> 18));
+                    b[p++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    b[p++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    b[p++] = (byte) (0x80 | (codePoint & 0x3F));
+                    i++;
+                } else {
+                    // Unpaired surrogate: replaced, as the JDK's UTF-8 encoder does
+                    b[p++] = '?';
+                }
+            } else {
+                b[p++] = (byte) (0xE0 | (c >> 12));
+                b[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                b[p++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        length = p;
+    }
+
+    private void appendEncoded(CharSequence text) {
+        int count = text.length();
+        if (chars == null || count > chars.length) {
+            chars = new char[Math.max(count, DEFAULT_CAPACITY)];
+            charBuffer = CharBuffer.wrap(chars);
+        }
+        if (text instanceof String) {
+            ((String) text).getChars(0, count, chars, 0);
+        } else {
+            for (int i = 0; i < count; i++) {
+                chars[i] = text.charAt(i);
+            }
+        }
+        ensureCapacity((int) (count * encoder.maxBytesPerChar()) + 16);
+
+        charBuffer.clear();
+        charBuffer.limit(count);
+        byteBuffer.clear();
+        byteBuffer.position(length);
+
+        // The buffer is sized for the worst case, and unmappable characters are replaced, so this cannot overflow
+        encoder.reset();
+        encoder.encode(charBuffer, byteBuffer, true);
+        encoder.flush(byteBuffer);
+        length = byteBuffer.position();
+    }
+
+    private void ensureCapacity(int additional) {
+        int required = length + additional;
+        if (required > bytes.length) {
+            byte[] previous = bytes;
+            allocate(Math.max(required, bytes.length * 2));
+            System.arraycopy(previous, 0, bytes, 0, length);
+        }
+    }
+
+    private void allocate(int capacity) {
+        bytes = new byte[capacity];
+        byteBuffer = ByteBuffer.wrap(bytes);
+    }
+}
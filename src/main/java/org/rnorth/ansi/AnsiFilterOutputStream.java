@@ -0,0 +1,203 @@
+package org.rnorth.ansi;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Output stream filter which removes or rewrites the ANSI SGR escape sequences (e.g. {@code ESC[32m}) produced by
+ * {@link AnsiLite} and {@link Style}, for example to archive a coloured log without colour:
+ * <pre>
+ *     try (OutputStream out = new AnsiFilterOutputStream(Files.newOutputStream(plain))) {
+ *         Files.copy(coloured, out);
+ *     }
+ * </pre>
+ * The filter is a state machine which holds at most one partial escape sequence, so it uses constant memory however
+ * much is written, and sequences split across calls to {@code write} are handled. Text between sequences is passed to
+ * the underlying stream in runs, without copying. Bytes which are not part of an SGR sequence, including other
+ * escape sequences, are passed through unchanged.
+ */
+public class AnsiFilterOutputStream extends FilterOutputStream {
+
+    private static final byte ESC = 0x1B;
+
+    /* SGR sequences longer than this are passed through unchanged rather than buffered */
+    private static final int MAX_SEQUENCE_LENGTH = 64;
+
+    private static final int TEXT = 0;
+    private static final int AFTER_ESC = 1;
+    private static final int IN_SEQUENCE = 2;
+
+    private final byte[][] from;
+    private final byte[][] to;
+
+    private final byte[] pending = new byte[MAX_SEQUENCE_LENGTH];
+    private int pendingLength;
+    private int state = TEXT;
+
+    /**
+     * Create a filter which removes all SGR sequences.
+     *
+     * @param out the stream to write filtered output to
+     */
+    public AnsiFilterOutputStream(OutputStream out) {
+        super(out);
+        this.from = null;
+        this.to = null;
+    }
+
+    /**
+     * Create a filter which rewrites SGR sequences, e.g. to change colours. Sequences which exactly match the escape
+     * sequence of a key are replaced with the escape sequence of its value, or removed if the value is
+     * {@link Style#NONE}. All other sequences, including resets, are passed through unchanged.
+     *
+     * @param out         the stream to write filtered output to
+     * @param replacements styles to replace, mapped to the styles to replace them with
+     */
+    public AnsiFilterOutputStream(OutputStream out, Map<Style, Style> replacements) {
+        super(out);
+        this.from = new byte[replacements.size()][];
+        this.to = new byte[replacements.size()][];
+        int i = 0;
+        for (Map.Entry<Style, Style> replacement : replacements.entrySet()) {
+            from[i] = replacement.getKey().escapeBytes();
+            to[i] = replacement.getValue().escapeBytes();
+            i++;
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        int end = off + len;
+        int textStart = off;
+        for (int i = off; i < end; i++) {
+            byte c = b[i];
+            switch (state) {
+                case TEXT:
+                    if (c != ESC) {
+                        continue;
+                    }
+                    out.write(b, textStart, i - textStart);
+                    startSequence();
+                    break;
+                case AFTER_ESC:
+                    if (c == '[') {
+                        pending[pendingLength++] = c;
+                        state = IN_SEQUENCE;
+                    } else {
+                        abandonSequence();
+                        if (c == ESC) {
+                            startSequence();
+                        } else {
+                            textStart = i;
+                            state = TEXT;
+                            continue;
+                        }
+                    }
+                    break;
+                case IN_SEQUENCE:
+                    if (c == 'm') {
+                        pending[pendingLength++] = c;
+                        completeSequence();
+                        state = TEXT;
+                    } else if ((c >= '0' && c <= '9') || c == ';') {
+                        if (pendingLength == MAX_SEQUENCE_LENGTH - 1) {
+                            abandonSequence();
+                            textStart = i;
+                            state = TEXT;
+                            continue;
+                        }
+                        pending[pendingLength++] = c;
+                    } else {
+                        // Not an SGR sequence, so pass it through as text
+                        abandonSequence();
+                        if (c == ESC) {
+                            startSequence();
+                        } else {
+                            textStart = i;
+                            state = TEXT;
+                            continue;
+                        }
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown state " + state);
+            }
+            textStart = i + 1;
+        }
+        if (state == TEXT && textStart < end) {
+            out.write(b, textStart, end - textStart);
+        }
+    }
+
+    /**
+     * Flush the underlying stream. A partial escape sequence at the end of the output so far is held back until the
+     * rest of it is written, or the stream is closed.
+     */
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Write any partial escape sequence unchanged, and close the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (state != TEXT) {
+            abandonSequence();
+            state = TEXT;
+        }
+        super.close();
+    }
+
+    private void startSequence() {
+        pending[0] = ESC;
+        pendingLength = 1;
+        state = AFTER_ESC;
+    }
+
+    private void abandonSequence() throws IOException {
+        out.write(pending, 0, pendingLength);
+        pendingLength = 0;
+    }
+
+    private void completeSequence() throws IOException {
+        if (from != null) {
+            int match = indexOfReplacement();
+            if (match < 0) {
+                out.write(pending, 0, pendingLength);
+            } else {
+                out.write(to[match]);
+            }
+        }
+        pendingLength = 0;
+    }
+
+    private int indexOfReplacement() {
+        for (int i = 0; i < from.length; i++) {
+            if (isPending(from[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isPending(byte[] sequence) {
+        if (sequence.length != pendingLength) {
+            return false;
+        }
+        for (int i = 0; i < pendingLength; i++) {
+            if (sequence[i] != pending[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -5,9 +5,9 @@ import static org.rnorth.ansi.CapabilityDetection.isUnderIDEA;
 import static org.rnorth.ansi.CapabilityDetection.isUnderMaven;
 
 /**
- * A simple ANSI colour output formatter. It is quite simplistic in implementation, and less efficient than it could be.
+ * A simple ANSI colour output formatter. It is quite simplistic in implementation, but works and is easy to use.
  *
- * It does, however, work, and is easy to use.
+ * Where output is produced in bulk, prefer {@link Style}, which combines attributes into a single escape sequence.
  */
 public class AnsiLite {
 
@@ -39,6 +39,9 @@ public class AnsiLite {
     static final String BACKGROUND_CYAN = "\u001B[46m";
     static final String BACKGROUND_WHITE = "\u001B[47m";
 
+    /* Cached result of capability detection; null until first resolved */
+    private static volatile Boolean enabled;
+
     private final String code;
     private final Object[] s;
 
@@ -127,22 +130,86 @@ public class AnsiLite {
         return new AnsiLite(REVERSE_VIDEO, s);
     }
 
+    /**
+     * Format using a {@link Style}, which may combine several attributes into a single escape sequence.
+     *
+     * @param style the style to apply
+     * @param s     the content to format
+     * @return formatted content
+     */
+    public static AnsiLite styled(Style style, Object... s) {
+        return new AnsiLite(style.escape(), s);
+    }
+
+    /**
+     * @return the escape sequence that starts this formatting, or an empty string if ANSI output is disabled
+     */
+    public String prefix() {
+        return isEnabled() ? code : "";
+    }
+
+    /**
+     * @return the escape sequence that ends this formatting, or an empty string if ANSI output is disabled
+     */
+    public String suffix() {
+        return isEnabled() ? RESET : "";
+    }
+
     @Override
     public String toString() {
-        final StringBuilder sb = new StringBuilder();
+        return render(new StringBuilder(), isEnabled()).toString();
+    }
+
+    /**
+     * Render into a single buffer, descending into nested AnsiLite values rather than building a string for each.
+     */
+    private StringBuilder render(StringBuilder sb, boolean enabled) {
+        final boolean styled = enabled && !code.isEmpty();
         for (Object o : this.s) {
-            if (isEnabled()) {
+            if (styled) {
                 sb.append(this.code);
-                sb.append(o);
-                sb.append(RESET);
+            }
+            if (o instanceof AnsiLite) {
+                ((AnsiLite) o).render(sb, enabled);
             } else {
                 sb.append(o);
             }
+            if (styled) {
+                sb.append(RESET);
+            }
+        }
+        return sb;
+    }
+
+    /**
+     * Discard the cached ANSI capability, so that it will be detected again on next use.
+     * <p>
+     * Capability detection is relatively expensive, so its result is cached. This method should be called after
+     * changing any of the {@code visibleassertions.ansi.enabled}, {@code jansi.*} or {@code ansi.passthrough} system
+     * properties at runtime.
+     */
+    public static synchronized void resetCapabilities() {
+        enabled = null;
+    }
+
+    /**
+     * @return whether ANSI output is enabled, as detected from the terminal or forced via system properties
+     */
+    public static boolean isEnabled() {
+        Boolean result = enabled;
+        if (result == null) {
+            synchronized (AnsiLite.class) {
+                result = enabled;
+                if (result == null) {
+                    result = detectEnabled();
+                    enabled = result;
+                }
+            }
         }
-        return sb.toString();
+        return result;
     }
 
-    private boolean isEnabled() {
+    private static boolean detectEnabled() {
 
         /* Allow ANSI support to be forced on or off (by setting -Dvisibleassertions.ansi.enabled=true|false) */
         if (System.getProperty("visibleassertions.ansi.enabled") != null) {
@@ -2,6 +2,7 @@ package org.rnorth.ansi;
 
 import com.sun.jna.Library;
 import com.sun.jna.Native;
+import com.sun.jna.NativeLong;
 
 /**
  * JNA accessor for native CLib.
@@ -10,4 +11,6 @@ interface CLib extends Library {
     CLib INSTANCE = (CLib) Native.loadLibrary("c", CLib.class);
 
     int isatty(int fd);
+
+    int ioctl(int fd, NativeLong request, Winsize winsize);
 }
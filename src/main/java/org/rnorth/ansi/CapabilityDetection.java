@@ -1,9 +1,11 @@
 package org.rnorth.ansi;
 
-import com.sun.jna.Platform;
-
 /**
  * Simple terminal capability detection.
+ * <p>
+ * Whether stdout is a terminal is detected without native code where possible (see {@link TtyDetection}). JNA is
+ * only loaded as a fallback, or to look up the terminal width when stdout is a terminal, and can be ruled out
+ * entirely by setting {@code -Dvisibleassertions.jna.enabled=false}.
  */
 public class CapabilityDetection {
     private static final int STDOUT_FILENO = 1;
@@ -33,19 +35,60 @@ public class CapabilityDetection {
         }
     }
 
+    /**
+     * @return whether stdout is a terminal. The result is detected once and cached.
+     */
     public static boolean isTty() {
-        // Don't attempt to check on Windows
-        if (Platform.isWindows()) {
-            return false;
+        return TtyHolder.IS_TTY;
+    }
+
+    /**
+     * Look up the width of the terminal attached to stdout, using the TIOCGWINSZ ioctl.
+     *
+     * @return the width in columns, or -1 if stdout is not a terminal or the width cannot be determined
+     */
+    public static int terminalWidth() {
+        // Only a terminal has a width, so don't load JNA to find out that there is none
+        if (!isTty() || !isJnaEnabled()) {
+            return -1;
         }
 
-        // Check native isatty using JNA. If we fail for any reason, assume no TTY and carry on.
         try {
-            return CLib.INSTANCE.isatty(STDOUT_FILENO) != 0;
+            return NativeTerminal.width(STDOUT_FILENO);
         } catch (Throwable ignored) {
+            return -1;
+        }
+    }
+
+    private static boolean detectTty() {
+        // Don't attempt to check on Windows
+        if (isWindows()) {
             return false;
         }
+
+        for (TtyDetection detection : TtyDetection.values()) {
+            if (detection == TtyDetection.NATIVE && !isJnaEnabled()) {
+                break;
+            }
+            Boolean result = detection.detect();
+            if (result != null) {
+                return result;
+            }
+        }
+
+        // If we can't tell for any reason, assume no TTY and carry on.
+        return false;
     }
 
-}
+    private static boolean isWindows() {
+        return System.getProperty("os.name", "").startsWith("Windows");
+    }
 
+    private static boolean isJnaEnabled() {
+        return !"false".equalsIgnoreCase(System.getProperty("visibleassertions.jna.enabled"));
+    }
+
+    private static final class TtyHolder {
+        static final boolean IS_TTY = detectTty();
+    }
+}
@@ -0,0 +1,34 @@
+package org.rnorth.ansi;
+
+import com.sun.jna.NativeLong;
+import com.sun.jna.Platform;
+
+/**
+ * Terminal queries which need native calls through JNA. Kept apart from {@link CapabilityDetection} so that JNA is
+ * only loaded if one of these methods is actually called.
+ */
+final class NativeTerminal {
+
+    private static final long TIOCGWINSZ_LINUX = 0x5413L;
+    private static final long TIOCGWINSZ_BSD = 0x40087468L;
+
+    private NativeTerminal() {
+        // Utility class - don't allow construction
+    }
+
+    static boolean isatty(int fd) {
+        return CLib.INSTANCE.isatty(fd) != 0;
+    }
+
+    /**
+     * @return the width in columns of the terminal attached to a file descriptor, or -1 if it cannot be determined
+     */
+    static int width(int fd) {
+        Winsize winsize = new Winsize();
+        long request = Platform.isLinux() ? TIOCGWINSZ_LINUX : TIOCGWINSZ_BSD;
+        if (CLib.INSTANCE.ioctl(fd, new NativeLong(request), winsize) == 0 && winsize.ws_col > 0) {
+            return winsize.ws_col;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,184 @@
+package org.rnorth.ansi;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * An immutable combination of ANSI SGR attributes, such as a colour plus intensity.
+ * <p>
+ * Unlike nesting {@link AnsiLite} values, combining styles with {@link #and(Style)} produces a single escape sequence
+ * (e.g. {@code ESC[37;1m}) and a single reset, and text is rendered straight into a caller-supplied buffer without
+ * building intermediate strings.
+ */
+public final class Style {
+
+    /* Escape sequences are plain ASCII, so these bytes are valid in UTF-8 and other ASCII-compatible charsets */
+    static final byte[] RESET_BYTES = AnsiLite.RESET.getBytes(StandardCharsets.US_ASCII);
+
+    public static final Style NONE = new Style();
+
+    public static final Style BRIGHT = new Style(1);
+    public static final Style DIM = new Style(2);
+    public static final Style UNDERLINE = new Style(4);
+    public static final Style REVERSE = new Style(7);
+
+    public static final Style BLACK = new Style(30);
+    public static final Style RED = new Style(31);
+    public static final Style GREEN = new Style(32);
+    public static final Style YELLOW = new Style(33);
+    public static final Style BLUE = new Style(34);
+    public static final Style MAGENTA = new Style(35);
+    public static final Style CYAN = new Style(36);
+    public static final Style WHITE = new Style(37);
+
+    public static final Style BG_BLACK = new Style(40);
+    public static final Style BG_RED = new Style(41);
+    public static final Style BG_GREEN = new Style(42);
+    public static final Style BG_YELLOW = new Style(43);
+    public static final Style BG_BLUE = new Style(44);
+    public static final Style BG_MAGENTA = new Style(45);
+    public static final Style BG_CYAN = new Style(46);
+    public static final Style BG_WHITE = new Style(47);
+
+    private final int[] codes;
+    private final String escape;
+    private final byte[] escapeBytes;
+
+    private Style(int... codes) {
+        this.codes = codes;
+        this.escape = buildEscape(codes);
+        this.escapeBytes = escape.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Combine this style with another. Attributes already present are not repeated.
+     *
+     * @param other the style to add
+     * @return a style with the attributes of both
+     */
+    public Style and(Style other) {
+        int[] merged = Arrays.copyOf(codes, codes.length + other.codes.length);
+        int length = codes.length;
+        for (int code : other.codes) {
+            if (!contains(merged, length, code)) {
+                merged[length++] = code;
+            }
+        }
+        return length == codes.length ? this : new Style(Arrays.copyOf(merged, length));
+    }
+
+    /**
+     * @return the escape sequence which starts this style, regardless of whether ANSI output is enabled
+     */
+    public String escape() {
+        return escape;
+    }
+
+    /**
+     * @return the escape sequence which starts this style as ASCII bytes, regardless of whether ANSI output is enabled
+     */
+    byte[] escapeBytes() {
+        return escapeBytes;
+    }
+
+    /**
+     * @return whether this style has any attributes, i.e. whether it needs escape sequences at all
+     */
+    boolean hasCodes() {
+        return codes.length > 0;
+    }
+
+    /**
+     * @return the escape sequence which starts this style, or an empty string if ANSI output is disabled
+     */
+    public String prefix() {
+        return AnsiLite.isEnabled() ? escape : "";
+    }
+
+    /**
+     * @return the escape sequence which ends this style, or an empty string if ANSI output is disabled
+     */
+    public String suffix() {
+        return AnsiLite.isEnabled() && codes.length > 0 ? AnsiLite.RESET : "";
+    }
+
+    /**
+     * Render text in this style into a buffer.
+     *
+     * @param sb   the buffer to append to
+     * @param text the text to render
+     * @return the buffer
+     */
+    public StringBuilder render(StringBuilder sb, CharSequence text) {
+        if (AnsiLite.isEnabled() && codes.length > 0) {
+            return sb.append(escape).append(text).append(AnsiLite.RESET);
+        } else {
+            return sb.append(text);
+        }
+    }
+
+    /**
+     * Render text in this style to an {@link Appendable}.
+     *
+     * @param out  the destination to append to
+     * @param text the text to render
+     * @param <A>  type of the destination
+     * @return the destination
+     * @throws IOException if the destination cannot be appended to
+     */
+    public <A extends Appendable> A render(A out, CharSequence text) throws IOException {
+        if (AnsiLite.isEnabled() && codes.length > 0) {
+            out.append(escape).append(text).append(AnsiLite.RESET);
+        } else {
+            out.append(text);
+        }
+        return out;
+    }
+
+    /**
+     * @param text the text to render
+     * @return the text rendered in this style
+     */
+    public String apply(CharSequence text) {
+        return render(new StringBuilder(escape.length() + text.length() + AnsiLite.RESET.length()), text).toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Style && Arrays.equals(codes, ((Style) o).codes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(codes);
+    }
+
+    @Override
+    public String toString() {
+        return "Style" + Arrays.toString(codes);
+    }
+
+    private static boolean contains(int[] codes, int length, int code) {
+        for (int i = 0; i < length; i++) {
+            if (codes[i] == code) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String buildEscape(int[] codes) {
+        if (codes.length == 0) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder("\u001B[");
+        for (int i = 0; i < codes.length; i++) {
+            if (i > 0) {
+                sb.append(';');
+            }
+            sb.append(codes[i]);
+        }
+        return sb.append('m').toString();
+    }
+}
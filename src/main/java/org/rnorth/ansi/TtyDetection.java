@@ -0,0 +1,81 @@
+package org.rnorth.ansi;
+
+import java.io.Console;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Ways of detecting whether stdout is a terminal, in the order {@link CapabilityDetection#isTty()} tries them.
+ * <p>
+ * The first two need nothing beyond the JDK; the last loads JNA and the native C library, which is comparatively slow,
+ * so it is only used when the others cannot give an answer.
+ */
+public enum TtyDetection {
+
+    /**
+     * On Linux, look at what {@code /proc/self/fd/1} links to: a terminal device such as {@code /dev/pts/0} rather
+     * than a pipe or file.
+     */
+    PROC_FS {
+        @Override
+        public Boolean detect() {
+            if (!System.getProperty("os.name", "").startsWith("Linux")) {
+                return null;
+            }
+            try {
+                String target = Files.readSymbolicLink(STDOUT_LINK).toString();
+                return target.startsWith("/dev/pts/") || target.startsWith("/dev/tty") || target.equals("/dev/console");
+            } catch (IOException | UnsupportedOperationException | SecurityException e) {
+                return null;
+            }
+        }
+    },
+
+    /**
+     * Use {@link System#console()}, which is only present if both stdin and stdout are terminals. If there is no
+     * console, stdout may still be a terminal (with stdin redirected), so this can only give a positive answer. On
+     * JDKs where a console may be present without a terminal, {@code Console.isTerminal()} is used instead.
+     */
+    CONSOLE {
+        @Override
+        public Boolean detect() {
+            Console console = System.console();
+            if (console == null) {
+                return null;
+            }
+            try {
+                Method isTerminal = Console.class.getMethod("isTerminal");
+                return (Boolean) isTerminal.invoke(console) ? Boolean.TRUE : null;
+            } catch (NoSuchMethodException e) {
+                return Boolean.TRUE;
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return null;
+            }
+        }
+    },
+
+    /**
+     * Call the native {@code isatty()} function through JNA.
+     */
+    NATIVE {
+        @Override
+        public Boolean detect() {
+            try {
+                return NativeTerminal.isatty(STDOUT_FILENO);
+            } catch (Throwable ignored) {
+                return null;
+            }
+        }
+    };
+
+    private static final int STDOUT_FILENO = 1;
+    private static final Path STDOUT_LINK = Paths.get("/proc/self/fd/1");
+
+    /**
+     * @return whether stdout is a terminal, or null if this method of detection cannot tell
+     */
+    public abstract Boolean detect();
+}
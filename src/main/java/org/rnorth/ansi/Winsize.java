@@ -0,0 +1,23 @@
+package org.rnorth.ansi;
+
+import com.sun.jna.Structure;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Terminal window size, as populated by the TIOCGWINSZ ioctl.
+ * <p>
+ * This is only public because JNA requires it; it is not intended for use outside of this package.
+ */
+public class Winsize extends Structure {
+    public short ws_row;
+    public short ws_col;
+    public short ws_xpixel;
+    public short ws_ypixel;
+
+    @Override
+    protected List<String> getFieldOrder() {
+        return Arrays.asList("ws_row", "ws_col", "ws_xpixel", "ws_ypixel");
+    }
+}
@@ -16,13 +16,66 @@
 
 package org.rnorth.visibleassertions;
 
+import org.rnorth.ansi.AnsiLite;
+import org.rnorth.ansi.CapabilityDetection;
+
+import java.util.concurrent.TimeUnit;
+
 /**
  * @author rnorth
  */
 class AnsiSupport {
 
+    private static final int DEFAULT_TERMINAL_WIDTH = 80;
+    private static final long TERMINAL_WIDTH_TTL_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    private static volatile TerminalWidth terminalWidth;
+
+    /**
+     * @return the width of the terminal, as detected natively (if ANSI output is enabled), from the COLUMNS environment variable, or 80 by
+     * default. The result is cached for a short time, so that resizing the terminal takes effect without a native
+     * call on every use.
+     */
     static int terminalWidth() {
-        // TODO: lookup via stty on *nix
-        return 80;
+        long now = System.nanoTime();
+        TerminalWidth current = terminalWidth;
+        if (current == null || now - current.expiresAt > 0) {
+            current = new TerminalWidth(detectTerminalWidth(), now + TERMINAL_WIDTH_TTL_NANOS);
+            terminalWidth = current;
+        }
+        return current.columns;
+    }
+
+    private static int detectTerminalWidth() {
+        // When ANSI output is off, stdout is not a terminal or is deliberately being treated as plain, so don't load
+        // native code to ask
+        int columns = AnsiLite.isEnabled() ? CapabilityDetection.terminalWidth() : -1;
+        if (columns > 0) {
+            return columns;
+        }
+
+        String environmentColumns = System.getenv("COLUMNS");
+        if (environmentColumns != null) {
+            try {
+                columns = Integer.parseInt(environmentColumns.trim());
+                if (columns > 0) {
+                    return columns;
+                }
+            } catch (NumberFormatException ignored) {
+                // Fall through
+            }
+        }
+
+        return DEFAULT_TERMINAL_WIDTH;
+    }
+
+    private static final class TerminalWidth {
+        final int columns;
+        final long expiresAt;
+
+        TerminalWidth(int columns, long expiresAt) {
+            this.columns = columns;
+            this.expiresAt = expiresAt;
+        }
     }
 }
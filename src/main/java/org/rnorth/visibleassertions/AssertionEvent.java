@@ -0,0 +1,86 @@
+package org.rnorth.visibleassertions;
+
+/**
+ * A structured record of something reported by {@link VisibleAssertions}: an assertion passing or failing, or an
+ * info, warning or context message.
+ * <p>
+ * Events are delivered to any registered {@link AssertionListener}s, whether or not output is silenced.
+ */
+public final class AssertionEvent {
+
+    /**
+     * Duration value used when the time taken was not measured.
+     */
+    public static final long UNTIMED = -1;
+
+    /**
+     * The kind of event.
+     */
+    public enum Type {
+        PASS, FAIL, INFO, WARN, CONTEXT
+    }
+
+    private final Type type;
+    private final String message;
+    private final String hint;
+    private final long timestamp;
+    private final String thread;
+    private final long durationNanos;
+
+    public AssertionEvent(Type type, String message, String hint, long timestamp, String thread, long durationNanos) {
+        this.type = type;
+        this.message = message;
+        this.hint = hint;
+        this.timestamp = timestamp;
+        this.thread = thread;
+        this.durationNanos = durationNanos;
+    }
+
+    /**
+     * @return the kind of event
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return the message, as it would be displayed
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return the hint explaining a failure, or null if there is none
+     */
+    public String getHint() {
+        return hint;
+    }
+
+    /**
+     * @return the time of the event, in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return the name of the thread which reported the event
+     */
+    public String getThread() {
+        return thread;
+    }
+
+    /**
+     * @return how long the assertion took to evaluate in nanoseconds (e.g. running a matcher or callable), or
+     * {@link #UNTIMED} if this was not measured
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + message + (hint == null ? "" : ": " + hint);
+    }
+}
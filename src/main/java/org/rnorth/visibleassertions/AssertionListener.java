@@ -0,0 +1,16 @@
+package org.rnorth.visibleassertions;
+
+/**
+ * Receives {@link AssertionEvent}s as they happen. Register with
+ * {@link VisibleAssertions#addListener(AssertionListener)}.
+ * <p>
+ * Listeners are called synchronously on the thread that reported the event, so must be thread safe and should return
+ * quickly.
+ */
+public interface AssertionListener {
+
+    /**
+     * @param event the event which occurred
+     */
+    void onEvent(AssertionEvent event);
+}
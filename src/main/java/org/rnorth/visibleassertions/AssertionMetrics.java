@@ -0,0 +1,248 @@
+package org.rnorth.visibleassertions;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+
+/**
+ * Counters of assertion outcomes and messages, and latency histograms for {@code assertThat} matcher evaluation and
+ * {@code assertThrows} callable execution.
+ * <p>
+ * Metrics are disabled by default, in which case the only cost is a volatile read per assertion. Enable them by
+ * setting the {@code visibleassertions.metrics} system property to true, or by calling {@link #enable()}. Once
+ * enabled, metrics can be read via {@link #snapshot()} or over JMX (see {@link AssertionMetricsMXBean}).
+ * <p>
+ * If metrics are enabled by the system property and the MBean cannot be registered, a warning is shown and metrics are
+ * still recorded, so that assertions are never affected.
+ */
+public final class AssertionMetrics {
+
+    private static final String METRICS_PROPERTY = "visibleassertions.metrics";
+    private static final String OBJECT_NAME = "org.rnorth.visibleassertions:type=AssertionMetrics";
+
+    private static volatile boolean enabled;
+    private static boolean registered;
+    private static boolean registrationFailureReported;
+
+    static {
+        if (Boolean.getBoolean(METRICS_PROPERTY)) {
+            enableFromProperty();
+        }
+    }
+
+    private AssertionMetrics() {
+        // Utility class - don't allow construction
+    }
+
+    /**
+     * Start recording metrics, and register the JMX MBean if it is not already registered.
+     *
+     * @throws IllegalStateException if the MBean cannot be registered; metrics are recorded regardless
+     */
+    public static synchronized void enable() {
+        enabled = true;
+        registerMBean();
+    }
+
+    /**
+     * Stop recording metrics. Metrics recorded so far are retained.
+     */
+    public static void disable() {
+        enabled = false;
+    }
+
+    /**
+     * @return whether metrics are being recorded
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Discard all metrics recorded so far.
+     */
+    public static void reset() {
+        for (StripedCounter counter : Store.COUNTERS) {
+            counter.reset();
+        }
+        Store.MATCHER_LATENCY.reset();
+        Store.CALLABLE_LATENCY.reset();
+    }
+
+    /**
+     * @return a copy of the metrics recorded so far
+     */
+    public static MetricsSnapshot snapshot() {
+        EnumMap<AssertionEvent.Type, Long> counts = new EnumMap<AssertionEvent.Type, Long>(AssertionEvent.Type.class);
+        for (AssertionEvent.Type type : AssertionEvent.Type.values()) {
+            counts.put(type, Store.COUNTERS[type.ordinal()].sum());
+        }
+        return new MetricsSnapshot(counts, Store.MATCHER_LATENCY.snapshot(), Store.CALLABLE_LATENCY.snapshot());
+    }
+
+    static void count(AssertionEvent.Type type) {
+        if (enabled) {
+            Store.COUNTERS[type.ordinal()].increment();
+        }
+    }
+
+    static void recordMatcher(long nanos) {
+        if (enabled) {
+            Store.MATCHER_LATENCY.record(nanos);
+        }
+    }
+
+    static void recordCallable(long nanos) {
+        if (enabled) {
+            Store.CALLABLE_LATENCY.record(nanos);
+        }
+    }
+
+    /*
+     * Apply the metrics property, if set, after a call to VisibleAssertions.reconfigure()
+     */
+    static void reconfigure() {
+        String property = System.getProperty(METRICS_PROPERTY);
+        if (property != null) {
+            if (Boolean.parseBoolean(property)) {
+                enableFromProperty();
+            } else {
+                disable();
+            }
+        }
+    }
+
+    /*
+     * Enable metrics because of the system property. This happens during class initialisation, so must not throw.
+     */
+    private static synchronized void enableFromProperty() {
+        try {
+            enable();
+        } catch (RuntimeException e) {
+            if (!registrationFailureReported) {
+                registrationFailureReported = true;
+                System.err.println("visible-assertions: metrics are enabled, but are not available over JMX: " + e);
+            }
+        }
+    }
+
+    private static void registerMBean() {
+        if (registered) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(new MXBean(), new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException ignored) {
+            // Registered by another copy of the library, e.g. in a different class loader
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to register assertion metrics MBean", e);
+        }
+        registered = true;
+    }
+
+    private static final class MXBean implements AssertionMetricsMXBean {
+
+        @Override
+        public boolean isEnabled() {
+            return AssertionMetrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            if (enabled) {
+                enable();
+            } else {
+                disable();
+            }
+        }
+
+        @Override
+        public long getPassCount() {
+            return Store.COUNTERS[AssertionEvent.Type.PASS.ordinal()].sum();
+        }
+
+        @Override
+        public long getFailCount() {
+            return Store.COUNTERS[AssertionEvent.Type.FAIL.ordinal()].sum();
+        }
+
+        @Override
+        public long getInfoCount() {
+            return Store.COUNTERS[AssertionEvent.Type.INFO.ordinal()].sum();
+        }
+
+        @Override
+        public long getWarnCount() {
+            return Store.COUNTERS[AssertionEvent.Type.WARN.ordinal()].sum();
+        }
+
+        @Override
+        public long getContextCount() {
+            return Store.COUNTERS[AssertionEvent.Type.CONTEXT.ordinal()].sum();
+        }
+
+        @Override
+        public long getMatcherCount() {
+            return Store.MATCHER_LATENCY.snapshot().getCount();
+        }
+
+        @Override
+        public long getMatcherMeanNanos() {
+            return Store.MATCHER_LATENCY.snapshot().getMeanNanos();
+        }
+
+        @Override
+        public long getMatcherP99Nanos() {
+            return Store.MATCHER_LATENCY.snapshot().getPercentileNanos(99);
+        }
+
+        @Override
+        public long getMatcherMaxNanos() {
+            return Store.MATCHER_LATENCY.snapshot().getMaxNanos();
+        }
+
+        @Override
+        public long getCallableCount() {
+            return Store.CALLABLE_LATENCY.snapshot().getCount();
+        }
+
+        @Override
+        public long getCallableMeanNanos() {
+            return Store.CALLABLE_LATENCY.snapshot().getMeanNanos();
+        }
+
+        @Override
+        public long getCallableP99Nanos() {
+            return Store.CALLABLE_LATENCY.snapshot().getPercentileNanos(99);
+        }
+
+        @Override
+        public long getCallableMaxNanos() {
+            return Store.CALLABLE_LATENCY.snapshot().getMaxNanos();
+        }
+
+        @Override
+        public void reset() {
+            AssertionMetrics.reset();
+        }
+    }
+
+    /*
+     * Holder for the metrics themselves, so that they are only allocated once metrics are used
+     */
+    private static final class Store {
+        static final StripedCounter[] COUNTERS = new StripedCounter[AssertionEvent.Type.values().length];
+        static final LatencyHistogram MATCHER_LATENCY = new LatencyHistogram();
+        static final LatencyHistogram CALLABLE_LATENCY = new LatencyHistogram();
+
+        static {
+            for (int i = 0; i < COUNTERS.length; i++) {
+                COUNTERS[i] = new StripedCounter();
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.rnorth.visibleassertions;
+
+/**
+ * JMX view of {@link AssertionMetrics}, registered as {@code org.rnorth.visibleassertions:type=AssertionMetrics}
+ * when metrics are enabled.
+ */
+public interface AssertionMetricsMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getPassCount();
+
+    long getFailCount();
+
+    long getInfoCount();
+
+    long getWarnCount();
+
+    long getContextCount();
+
+    long getMatcherCount();
+
+    long getMatcherMeanNanos();
+
+    long getMatcherP99Nanos();
+
+    long getMatcherMaxNanos();
+
+    long getCallableCount();
+
+    long getCallableMeanNanos();
+
+    long getCallableP99Nanos();
+
+    long getCallableMaxNanos();
+
+    void reset();
+}
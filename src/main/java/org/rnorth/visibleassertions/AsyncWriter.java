@@ -0,0 +1,191 @@
+package org.rnorth.visibleassertions;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes encoded output records to the global {@link OutputSink} from a single background thread.
+ * <p>
+ * Producers claim a sequence number and publish their record into a bounded ring buffer without taking a lock. The
+ * writer thread drains published records in sequence order, coalescing them into large batched writes. If the ring
+ * is full, producers wait for the writer to catch up rather than dropping output.
+ * <p>
+ * If the sink throws, the failure is reported once on stderr and the records in that batch are discarded, so that
+ * producers and flushes never wait on output which cannot be written.
+ */
+final class AsyncWriter implements Runnable {
+
+    private static final int CAPACITY = 8192;
+    private static final int BATCH_SIZE = 64 * 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+    private final AtomicReferenceArray<byte[]> records = new AtomicReferenceArray<byte[]>(CAPACITY);
+    private final AtomicLong tail = new AtomicLong();
+    private final byte[] batch = new byte[BATCH_SIZE];
+    private final Object writtenLock = new Object();
+    private final Thread thread;
+
+    /* Next sequence to be consumed; only written by the writer thread */
+    private volatile long head;
+    /* All records below this sequence have been written to the sink */
+    private volatile long written;
+    private volatile boolean idle;
+    /* Only accessed by the writer thread */
+    private boolean failureReported;
+
+    AsyncWriter() {
+        thread = new Thread(this, "visible-assertions-writer");
+        thread.setDaemon(true);
+        thread.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread("visible-assertions-shutdown") {
+            @Override
+            public void run() {
+                flush(SHUTDOWN_TIMEOUT_MILLIS);
+            }
+        });
+    }
+
+    /**
+     * Enqueue a record for writing. The record must not be modified afterwards.
+     *
+     * @param record encoded bytes, usually one or more complete lines
+     */
+    void enqueue(byte[] record) {
+        long sequence = tail.getAndIncrement();
+        while (sequence - head >= CAPACITY) {
+            if (!thread.isAlive()) {
+                return;
+            }
+            LockSupport.unpark(thread);
+            LockSupport.parkNanos(1000);
+        }
+        records.set(index(sequence), record);
+
+        if (idle) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Block until every record enqueued before this call has been written.
+     */
+    void flush() {
+        flush(0);
+    }
+
+    private void flush(long timeoutMillis) {
+        long target = tail.get();
+        if (written >= target) {
+            return;
+        }
+
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        LockSupport.unpark(thread);
+        synchronized (writtenLock) {
+            while (written < target) {
+                if (!thread.isAlive()) {
+                    return;
+                }
+                long remaining = timeoutMillis == 0 ? 0 : deadline - System.currentTimeMillis();
+                if (timeoutMillis != 0 && remaining <= 0) {
+                    return;
+                }
+                try {
+                    writtenLock.wait(remaining == 0 ? 10 : Math.min(remaining, 10));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            boolean drained;
+            try {
+                drained = drain();
+            } catch (Throwable t) {
+                reportFailure(t);
+                drained = true;
+            }
+            if (!drained) {
+                idle = true;
+                if (records.get(index(head)) == null) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                idle = false;
+            }
+        }
+    }
+
+    /**
+     * Write out the records that have been published so far, up to one ring's worth so that flushes are not starved.
+     * Records are marked as written even if the sink throws.
+     *
+     * @return whether any records were consumed
+     */
+    private boolean drain() {
+        long sequence = head;
+        byte[] record = records.get(index(sequence));
+        if (record == null) {
+            return false;
+        }
+
+        try {
+            writeBatch(sequence, record);
+        } finally {
+            synchronized (writtenLock) {
+                written = head;
+                writtenLock.notifyAll();
+            }
+        }
+        return true;
+    }
+
+    private void writeBatch(long sequence, byte[] record) {
+        OutputSink out = Output.globalSink();
+        int length = 0;
+        int count = 0;
+        while (record != null && count++ < CAPACITY) {
+            records.lazySet(index(sequence), null);
+            sequence++;
+            head = sequence;
+
+            if (length + record.length > batch.length) {
+                out.write(batch, 0, length);
+                length = 0;
+            }
+            if (record.length > batch.length) {
+                out.write(record, 0, record.length);
+            } else {
+                System.arraycopy(record, 0, batch, length, record.length);
+                length += record.length;
+            }
+
+            record = records.get(index(sequence));
+        }
+        if (length > 0) {
+            out.write(batch, 0, length);
+        }
+        out.flush();
+    }
+
+    private void reportFailure(Throwable t) {
+        if (failureReported) {
+            return;
+        }
+        failureReported = true;
+        System.err.println("visible-assertions: failed to write output, so some output has been lost");
+        t.printStackTrace();
+    }
+
+    private static int index(long sequence) {
+        return (int) (sequence & (CAPACITY - 1));
+    }
+}
@@ -0,0 +1,44 @@
+package org.rnorth.visibleassertions;
+
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * JUnit rule which collects all assertion output produced by a test into a private buffer, and writes it as a single
+ * block when the test finishes. When tests run in parallel, this keeps each test's output together rather than
+ * interleaved line by line, without tests contending for the output stream on every line.
+ * <p>
+ * Usage:
+ * <pre>
+ *     &#64;Rule
+ *     public BufferedOutputRule bufferedOutput = new BufferedOutputRule();
+ * </pre>
+ * Output is buffered per thread, so output from other threads started by the test is written as it is produced.
+ * If other rules produce output (e.g. a {@code context()} line per test), order them inside this rule with a
+ * {@link org.junit.rules.RuleChain} so that their output is included in the block.
+ */
+public class BufferedOutputRule implements TestRule {
+
+    @Override
+    public Statement apply(final Statement base, Description description) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                OutputSink previous = Output.threadSink();
+                MemorySink buffer = new MemorySink();
+                Output.setThreadSink(buffer);
+                try {
+                    base.evaluate();
+                } finally {
+                    Output.setThreadSink(previous);
+                    byte[] block = buffer.toByteArray();
+                    if (block.length > 0) {
+                        Output.write(block, 0, block.length);
+                        Output.flush();
+                    }
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,63 @@
+package org.rnorth.visibleassertions;
+
+/**
+ * Immutable snapshot of the {@code visibleassertions.*} system properties which are checked on every assertion.
+ * <p>
+ * Properties are read once, when this class is loaded, and again whenever {@link #reload()} is called, so that the hot
+ * path only needs a single volatile read rather than a {@link System#getProperty(String)} lookup per check.
+ */
+final class Config {
+
+    static final String SILENCE_PROPERTY = "visibleassertions.silence";
+    static final String SILENCE_PASSES_PROPERTY = "visibleassertions.silence.passes";
+    static final String SILENCE_FAILURES_PROPERTY = "visibleassertions.silence.failures";
+    static final String ASYNC_PROPERTY = "visibleassertions.output.async";
+    static final String HINT_MAX_LENGTH_PROPERTY = "visibleassertions.hint.maxlength";
+    static final String MATCHER_CACHE_PROPERTY = "visibleassertions.matcher.cache";
+
+    static final int DEFAULT_HINT_MAX_LENGTH = 1000;
+    private static final int MIN_HINT_MAX_LENGTH = 16;
+
+    private static volatile Config current = read();
+
+    final boolean silenced;
+    final boolean passesSilenced;
+    final boolean failuresSilenced;
+    final boolean async;
+    final int maxHintLength;
+    final boolean cacheMatcherDescriptions;
+
+    private Config(boolean silenced, boolean passesSilenced, boolean failuresSilenced, boolean async, int maxHintLength,
+                   boolean cacheMatcherDescriptions) {
+        this.silenced = silenced;
+        this.passesSilenced = silenced || passesSilenced;
+        this.failuresSilenced = silenced || failuresSilenced;
+        this.async = async;
+        this.maxHintLength = Math.max(maxHintLength, MIN_HINT_MAX_LENGTH);
+        this.cacheMatcherDescriptions = cacheMatcherDescriptions;
+    }
+
+    /**
+     * @return the current configuration
+     */
+    static Config get() {
+        return current;
+    }
+
+    /**
+     * Re-read configuration from system properties.
+     */
+    static void reload() {
+        current = read();
+    }
+
+    private static Config read() {
+        return new Config(
+                Boolean.getBoolean(SILENCE_PROPERTY),
+                Boolean.getBoolean(SILENCE_PASSES_PROPERTY),
+                Boolean.getBoolean(SILENCE_FAILURES_PROPERTY),
+                Boolean.getBoolean(ASYNC_PROPERTY),
+                Integer.getInteger(HINT_MAX_LENGTH_PROPERTY, DEFAULT_HINT_MAX_LENGTH),
+                Boolean.parseBoolean(System.getProperty(MATCHER_CACHE_PROPERTY, "true")));
+    }
+}
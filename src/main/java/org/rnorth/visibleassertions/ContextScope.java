@@ -0,0 +1,133 @@
+package org.rnorth.visibleassertions;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A named section of test output, opened with {@link VisibleAssertions#contextScope(CharSequence)}. While the scope is
+ * open, output from the thread that opened it is indented, and passes and failures are counted; {@link #close()} shows
+ * how long the scope was open and what it counted.
+ * <p>
+ * Scopes may be nested; each level indents output further, and an inner scope's counts are included in the enclosing
+ * scope's.
+ */
+public final class ContextScope implements AutoCloseable {
+
+    /**
+     * Number of spaces that output is indented by for each level of nesting.
+     */
+    static final int INDENT = 4;
+
+    private static final ThreadLocal<ContextScope> CURRENT = new ThreadLocal<ContextScope>();
+
+    /* Number of scopes open on any thread, so that threads without scopes can skip the thread-local lookup */
+    private static final AtomicInteger OPEN = new AtomicInteger();
+
+    private final ContextScope parent;
+    private final String name;
+    private final int depth;
+    private final long startNanos;
+    private long passCount;
+    private long failureCount;
+    private long elapsedNanos;
+    private boolean closed;
+
+    private ContextScope(ContextScope parent, String name) {
+        this.parent = parent;
+        this.name = name;
+        this.depth = parent == null ? 1 : parent.depth + 1;
+        this.startNanos = System.nanoTime();
+    }
+
+    static ContextScope open(CharSequence name) {
+        ContextScope scope = new ContextScope(CURRENT.get(), String.valueOf(name));
+        CURRENT.set(scope);
+        OPEN.incrementAndGet();
+        return scope;
+    }
+
+    /**
+     * Count a pass or failure in the current thread's innermost scope, if there is one.
+     */
+    static void count(AssertionEvent.Type type) {
+        if (OPEN.get() == 0) {
+            return;
+        }
+        ContextScope scope = CURRENT.get();
+        if (scope == null) {
+            return;
+        }
+        if (type == AssertionEvent.Type.PASS) {
+            scope.passCount++;
+        } else if (type == AssertionEvent.Type.FAIL) {
+            scope.failureCount++;
+        }
+    }
+
+    /**
+     * @return number of spaces to indent the current thread's output by
+     */
+    static int indent() {
+        if (OPEN.get() == 0) {
+            return 0;
+        }
+        ContextScope scope = CURRENT.get();
+        return scope == null ? 0 : scope.depth * INDENT;
+    }
+
+    /**
+     * @return number of passes in this scope so far, including those in nested scopes which have been closed
+     */
+    public long getPassCount() {
+        return passCount;
+    }
+
+    /**
+     * @return number of failures in this scope so far, including those in nested scopes which have been closed
+     */
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * Close the scope, showing its elapsed time and counts.
+     *
+     * @throws IllegalStateException if this is not the innermost open scope on the current thread
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        if (CURRENT.get() != this) {
+            throw new IllegalStateException("Context scopes must be closed by the thread that opened them, innermost first");
+        }
+        closed = true;
+        elapsedNanos = System.nanoTime() - startNanos;
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+            parent.passCount += passCount;
+            parent.failureCount += failureCount;
+        }
+        OPEN.decrementAndGet();
+
+        VisibleAssertions.closeContextScope(this);
+    }
+
+    /**
+     * @return description of the elapsed time and counts of this scope, once closed
+     */
+    String summary() {
+        return name + " finished in " + formatElapsed(elapsedNanos) + ": " + passCount + " passed, " + failureCount + " failed";
+    }
+
+    private static String formatElapsed(long nanos) {
+        if (nanos < 1000000000L) {
+            return String.format(Locale.ROOT, "%.1f ms", nanos / 1e6);
+        } else {
+            return String.format(Locale.ROOT, "%.2f s", nanos / 1e9);
+        }
+    }
+}
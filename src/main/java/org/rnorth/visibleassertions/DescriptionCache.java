@@ -0,0 +1,67 @@
+package org.rnorth.visibleassertions;
+
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A small cache of Hamcrest matcher descriptions, keyed by matcher identity, so that a matcher which is reused across
+ * many {@code assertThat} calls is only described once.
+ * <p>
+ * The cache is direct-mapped: each matcher can only occupy one slot, chosen by its identity hash, and a new matcher
+ * simply replaces whatever was in its slot. Matchers are only weakly referenced. Caching assumes that a matcher's
+ * description does not change; it can be turned off with {@code -Dvisibleassertions.matcher.cache=false}.
+ */
+final class DescriptionCache {
+
+    private static final int SIZE = 256;
+
+    private static final AtomicReferenceArray<Entry> ENTRIES = new AtomicReferenceArray<Entry>(SIZE);
+
+    private DescriptionCache() {
+        // Utility class - don't allow construction
+    }
+
+    /**
+     * @param matcher a matcher
+     * @return the matcher's description, as produced by {@link Matcher#describeTo}
+     */
+    static String describe(Matcher<?> matcher) {
+        if (!Config.get().cacheMatcherDescriptions) {
+            return StringDescription.toString(matcher);
+        }
+
+        int slot = slot(matcher);
+        Entry entry = ENTRIES.get(slot);
+        if (entry != null && entry.matcher.get() == matcher) {
+            return entry.description;
+        }
+
+        String description = StringDescription.toString(matcher);
+        ENTRIES.set(slot, new Entry(matcher, description));
+        return description;
+    }
+
+    static void clear() {
+        for (int i = 0; i < SIZE; i++) {
+            ENTRIES.set(i, null);
+        }
+    }
+
+    private static int slot(Object matcher) {
+        int hash = System.identityHashCode(matcher);
+        return (hash ^ (hash >>> 16)) & (SIZE - 1);
+    }
+
+    private static final class Entry {
+        final WeakReference<Matcher<?>> matcher;
+        final String description;
+
+        Entry(Matcher<?> matcher, String description) {
+            this.matcher = new WeakReference<Matcher<?>>(matcher);
+            this.description = description;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.rnorth.visibleassertions;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registry of {@link AssertionListener}s. When no listeners are registered, no events are created.
+ * <p>
+ * Every event is also counted by {@link AssertionMetrics}, if enabled, and by the current thread's
+ * {@link ContextScope}, if one is open.
+ */
+final class Events {
+
+    private static final CopyOnWriteArrayList<AssertionListener> LISTENERS = new CopyOnWriteArrayList<AssertionListener>();
+
+    private static volatile boolean active;
+
+    private Events() {
+        // Utility class - don't allow construction
+    }
+
+    static synchronized void addListener(AssertionListener listener) {
+        LISTENERS.add(listener);
+        active = true;
+    }
+
+    static synchronized void removeListener(AssertionListener listener) {
+        LISTENERS.remove(listener);
+        active = !LISTENERS.isEmpty();
+    }
+
+    /**
+     * @return whether any listeners are registered
+     */
+    static boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Count an event without creating it, for callers which skip {@link #fire} because there is nothing to show.
+     */
+    static void count(AssertionEvent.Type type) {
+        AssertionMetrics.count(type);
+        ContextScope.count(type);
+    }
+
+    static void fire(AssertionEvent.Type type, CharSequence message, String hint, long durationNanos) {
+        count(type);
+        if (!active) {
+            return;
+        }
+
+        AssertionEvent event = new AssertionEvent(type, message == null ? null : message.toString(), hint, System.currentTimeMillis(),
+                Thread.currentThread().getName(), durationNanos);
+        for (AssertionListener listener : LISTENERS) {
+            listener.onEvent(event);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.rnorth.visibleassertions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Output sink that writes to a file through a buffered {@link FileChannel}.
+ * <p>
+ * Output is buffered in memory and written to the file when the buffer fills, when {@link #flush()} is called (which
+ * happens before every failed assertion is thrown) or when the sink is closed.
+ */
+public class FileSink implements OutputSink, Closeable {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+
+    /**
+     * Create a sink which writes to a file, replacing any existing content.
+     *
+     * @param path the file to write to
+     * @throws IOException if the file cannot be opened
+     */
+    public FileSink(Path path) throws IOException {
+        this(path, false, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Create a sink which writes to a file.
+     *
+     * @param path       the file to write to
+     * @param append     whether to append to any existing content rather than replacing it
+     * @param bufferSize size of the in-memory buffer, in bytes
+     * @throws IOException if the file cannot be opened
+     */
+    public FileSink(Path path, boolean append, int bufferSize) throws IOException {
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    @Override
+    public synchronized void write(byte[] bytes, int offset, int length) {
+        if (length > buffer.remaining()) {
+            drain();
+        }
+        if (length > buffer.capacity()) {
+            writeFully(ByteBuffer.wrap(bytes, offset, length));
+        } else {
+            buffer.put(bytes, offset, length);
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        drain();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        drain();
+        channel.close();
+    }
+
+    private void drain() {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer source) {
+        try {
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write assertion output to file", e);
+        }
+    }
+}
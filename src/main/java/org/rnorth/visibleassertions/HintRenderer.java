@@ -0,0 +1,160 @@
+package org.rnorth.visibleassertions;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Renders values for failure hints within a length limit, so that a failure involving a huge value cannot flood the
+ * output or exhaust memory.
+ * <p>
+ * Values longer than the limit are abbreviated in the middle, keeping the start and end, e.g.
+ * {@code 'aaaa...(5000 characters omitted)...zzzz'}. Strings and other {@link CharSequence}s are copied into the hint
+ * a range at a time, and collections are rendered element by element until the limit is reached, so neither is ever
+ * converted to a full-length string. The limit is set with the {@code visibleassertions.hint.maxlength} system
+ * property.
+ */
+final class HintRenderer {
+
+    /* Abbreviating a value saves nothing unless it is at least this much over the limit */
+    private static final int MIN_OMITTED = 32;
+
+    private HintRenderer() {
+        // Utility class - don't allow construction
+    }
+
+    /**
+     * @return the maximum length of a rendered value
+     */
+    static int maxLength() {
+        return Config.get().maxHintLength;
+    }
+
+    /**
+     * @param value value to render
+     * @return the value in quotes and abbreviated if necessary, or {@code null} (unquoted) if it is null
+     */
+    static String quoted(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        int max = maxLength();
+        StringBuilder sb = new StringBuilder(Math.min(max, 256) + 2);
+        sb.append('\'');
+        append(sb, value, max);
+        return sb.append('\'').toString();
+    }
+
+    /**
+     * @param text text to render
+     * @return the text, abbreviated if necessary
+     */
+    static String abbreviate(String text) {
+        int max = maxLength();
+        if (text.length() <= max + MIN_OMITTED) {
+            return text;
+        }
+        return appendAbbreviated(new StringBuilder(max + MIN_OMITTED), text, max).toString();
+    }
+
+    /**
+     * Append a value to a buffer, abbreviated if necessary.
+     *
+     * @param sb    the buffer to append to
+     * @param value the value to render
+     * @param max   the maximum number of characters of the value to append
+     * @return the buffer
+     */
+    static StringBuilder append(StringBuilder sb, Object value, int max) {
+        if (value instanceof CharSequence) {
+            return appendAbbreviated(sb, (CharSequence) value, max);
+        } else if (value instanceof Collection) {
+            return appendCollection(sb, (Collection<?>) value, max);
+        } else {
+            return appendAbbreviated(sb, String.valueOf(value), max);
+        }
+    }
+
+    /**
+     * Describe the difference between two strings which are too long to render in full, by showing a window of each
+     * around the first character at which they differ.
+     *
+     * @return a description of the difference, or null if both strings are short enough to render in full
+     */
+    static String difference(CharSequence expected, CharSequence actual) {
+        int max = maxLength();
+        if (expected.length() <= max && actual.length() <= max) {
+            return null;
+        }
+
+        int length = Math.min(expected.length(), actual.length());
+        int index = 0;
+        while (index < length && expected.charAt(index) == actual.charAt(index)) {
+            index++;
+        }
+
+        int radius = Math.max(max / 4, 1);
+        StringBuilder sb = new StringBuilder(2 * max + 96);
+        appendWindow(sb.append('\''), actual, index, radius).append("' does not equal expected '");
+        appendWindow(sb, expected, index, radius).append('\'');
+        sb.append(" (first difference at character ").append(index);
+        if (expected.length() != actual.length()) {
+            sb.append("; lengths ").append(actual.length()).append(" and expected ").append(expected.length());
+        }
+        return sb.append(')').toString();
+    }
+
+    private static StringBuilder appendAbbreviated(StringBuilder sb, CharSequence text, int max) {
+        int length = text.length();
+        if (length <= max + MIN_OMITTED) {
+            return sb.append(text);
+        }
+
+        int head = boundary(text, (max + 1) / 2);
+        int tail = boundary(text, length - max / 2);
+        return sb.append(text, 0, head)
+                .append("...(").append(tail - head).append(" characters omitted)...")
+                .append(text, tail, length);
+    }
+
+    private static StringBuilder appendWindow(StringBuilder sb, CharSequence text, int index, int radius) {
+        int start = boundary(text, Math.max(0, index - radius));
+        int end = boundary(text, Math.min(text.length(), index + radius));
+        if (start > 0) {
+            sb.append("...");
+        }
+        sb.append(text, start, end);
+        if (end < text.length()) {
+            sb.append("...");
+        }
+        return sb;
+    }
+
+    private static StringBuilder appendCollection(StringBuilder sb, Collection<?> collection, int max) {
+        int start = sb.length();
+        int remaining = collection.size();
+        sb.append('[');
+        for (Iterator<?> iterator = collection.iterator(); iterator.hasNext(); remaining--) {
+            int used = sb.length() - start;
+            if (used >= max) {
+                return sb.append("...(").append(remaining).append(" more elements)]");
+            }
+            Object element = iterator.next();
+            append(sb, element == collection ? "(this Collection)" : element, max - used);
+            if (iterator.hasNext()) {
+                sb.append(", ");
+            }
+        }
+        return sb.append(']');
+    }
+
+    /*
+     * Move an index back by one if it would split a surrogate pair
+     */
+    private static int boundary(CharSequence text, int index) {
+        if (index > 0 && index < text.length() && Character.isHighSurrogate(text.charAt(index - 1))
+                && Character.isLowSurrogate(text.charAt(index))) {
+            return index - 1;
+        }
+        return index;
+    }
+}
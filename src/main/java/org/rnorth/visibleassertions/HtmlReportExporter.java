@@ -0,0 +1,222 @@
+package org.rnorth.visibleassertions;
+
+import org.rnorth.ansi.AnsiEncoder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * Listener which streams every {@link AssertionEvent} to a self-contained HTML report, for viewing test output in a
+ * browser with its colours intact.
+ * <p>
+ * Each {@link VisibleAssertions#context(CharSequence)} starts a collapsible section, and the report has controls to
+ * hide passes and information, or to show only sections containing failures. No scripts or external resources are
+ * used.
+ * <p>
+ * The report is encoded into a reusable buffer and written through a {@link FileChannel} as the buffer fills, so memory
+ * use is constant however many events are reported. Call {@link #close()} at the end of the run to complete the
+ * report.
+ * <p>
+ * Usage:
+ * <pre>
+ *     HtmlReportExporter report = new HtmlReportExporter(Paths.get("target/assertions.html"));
+ *     VisibleAssertions.addListener(report);
+ * </pre>
+ */
+public class HtmlReportExporter implements AssertionListener, Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String HEADER = "<!DOCTYPE html>\n"
+            + "<html>\n"
+            + "<head>\n"
+            + "<meta charset=\"utf-8\">\n"
+            + "<title>Assertions</title>\n"
+            + "<style>\n"
+            + "body { background: #1e1e1e; color: #d4d4d4; font: 13px/1.5 Menlo, Consolas, monospace; margin: 1em; }\n"
+            + "label { margin-right: 1.5em; }\n"
+            + "main { margin-top: 1em; }\n"
+            + "details { margin-top: 0.5em; }\n"
+            + "summary { color: #808080; cursor: pointer; border-bottom: 1px dashed #505050; }\n"
+            + "main > div, details > div { padding-left: 4em; }\n"
+            + ".pass { color: #4ec94e; }\n"
+            + ".fail { color: #f14c4c; }\n"
+            + ".info { color: #ffffff; font-weight: bold; }\n"
+            + ".warn { color: #e5e510; font-weight: bold; }\n"
+            + ".hint { color: #e5e510; padding-left: 2em; white-space: pre-wrap; }\n"
+            + ".duration { color: #808080; margin-left: 1em; }\n"
+            + "details:has(.fail) > summary { color: #f14c4c; }\n"
+            + "#hide-passes:checked ~ main .pass { display: none; }\n"
+            + "#hide-info:checked ~ main .info, #hide-info:checked ~ main .warn { display: none; }\n"
+            + "#only-failures:checked ~ main details:not(:has(.fail)) { display: none; }\n"
+            + "footer { margin-top: 1em; color: #808080; }\n"
+            + "</style>\n"
+            + "</head>\n"
+            + "<body>\n"
+            + "<input type=\"checkbox\" id=\"hide-passes\"><label for=\"hide-passes\">Hide passes</label>\n"
+            + "<input type=\"checkbox\" id=\"hide-info\"><label for=\"hide-info\">Hide information</label>\n"
+            + "<input type=\"checkbox\" id=\"only-failures\"><label for=\"only-failures\">Only sections with failures</label>\n"
+            + "<main>\n";
+
+    private final FileChannel channel;
+    private final AnsiEncoder encoder = new AnsiEncoder();
+    private final StringBuilder line = new StringBuilder(256);
+
+    private boolean inSection;
+    private boolean closed;
+    private long passes;
+    private long failures;
+
+    /**
+     * Create an exporter which writes a report to a file, replacing any existing content.
+     *
+     * @param path the file to write to
+     * @throws IOException if the file cannot be opened
+     */
+    public HtmlReportExporter(Path path) throws IOException {
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        encoder.append(HEADER);
+    }
+
+    @Override
+    public synchronized void onEvent(AssertionEvent event) {
+        if (closed) {
+            return;
+        }
+
+        line.setLength(0);
+        switch (event.getType()) {
+            case CONTEXT:
+                if (inSection) {
+                    line.append("</details>\n");
+                }
+                line.append("<details open><summary>");
+                appendEscaped(event.getMessage());
+                line.append("</summary>\n");
+                inSection = true;
+                break;
+            case PASS:
+                passes++;
+                appendEvent("pass", "\u2714", event);
+                break;
+            case FAIL:
+                failures++;
+                appendEvent("fail", "\u2718", event);
+                break;
+            case INFO:
+                appendEvent("info", "\u2139\ufe0e", event);
+                break;
+            case WARN:
+                appendEvent("warn", "\u26a0\ufe0e", event);
+                break;
+            default:
+                throw new IllegalStateException("Unknown event type " + event.getType());
+        }
+
+        encoder.append(line);
+        if (encoder.length() >= BUFFER_SIZE) {
+            drain();
+        }
+    }
+
+    /**
+     * Write all events received so far to the file. The report is only valid HTML once {@link #close()} is called.
+     *
+     * @throws IOException if writing fails
+     */
+    public synchronized void flush() throws IOException {
+        writeBuffer();
+    }
+
+    /**
+     * Complete the report with a summary of passes and failures, and close the file. The file is closed even if
+     * completing the report fails.
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            if (inSection) {
+                encoder.append("</details>\n");
+            }
+            encoder.append("</main>\n<footer>" + passes + " passed, " + failures + " failed</footer>\n</body>\n</html>\n");
+            writeBuffer();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void appendEvent(String cssClass, String mark, AssertionEvent event) {
+        line.append("<div class=\"").append(cssClass).append("\" title=\"");
+        appendEscaped(event.getThread());
+        line.append("\">").append(mark).append(' ');
+        appendEscaped(event.getMessage());
+        if (event.getDurationNanos() != AssertionEvent.UNTIMED) {
+            line.append("<span class=\"duration\">")
+                    .append(String.format(Locale.ROOT, "%.3f ms", event.getDurationNanos() / 1e6))
+                    .append("</span>");
+        }
+        if (event.getHint() != null) {
+            line.append("<div class=\"hint\">");
+            appendEscaped(event.getHint());
+            line.append("</div>");
+        }
+        line.append("</div>\n");
+    }
+
+    private void appendEscaped(String value) {
+        if (value == null) {
+            return;
+        }
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<':
+                    line.append("&lt;");
+                    break;
+                case '>':
+                    line.append("&gt;");
+                    break;
+                case '&':
+                    line.append("&amp;");
+                    break;
+                case '"':
+                    line.append("&quot;");
+                    break;
+                default:
+                    line.append(c);
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            writeBuffer();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write assertion report", e);
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(encoder.array(), 0, encoder.length());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        encoder.clear();
+    }
+}
@@ -0,0 +1,153 @@
+package org.rnorth.visibleassertions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * Listener which streams every {@link AssertionEvent} to a file in <a href="https://jsonlines.org/">JSON Lines</a>
+ * format, one JSON object per line, e.g.:
+ * <pre>
+ * {"type":"fail","message":"it should be equal","hint":"'A' does not equal expected 'B'","timestamp":1541000000000,"thread":"main","durationNanos":null}
+ * </pre>
+ * Events are encoded into a reusable buffer and written through a {@link FileChannel} as the buffer fills, so memory
+ * use is constant however many events are exported. Call {@link #close()} at the end of the run to write any
+ * remaining events.
+ * <p>
+ * Usage:
+ * <pre>
+ *     JsonLinesExporter exporter = new JsonLinesExporter(Paths.get("target/assertions.jsonl"));
+ *     VisibleAssertions.addListener(exporter);
+ * </pre>
+ */
+public class JsonLinesExporter implements AssertionListener, Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final StringBuilder line = new StringBuilder(256);
+
+    /**
+     * Create an exporter which writes to a file, replacing any existing content.
+     *
+     * @param path the file to write to
+     * @throws IOException if the file cannot be opened
+     */
+    public JsonLinesExporter(Path path) throws IOException {
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    @Override
+    public synchronized void onEvent(AssertionEvent event) {
+        line.setLength(0);
+        line.append("{\"type\":");
+        appendString(event.getType().name().toLowerCase(Locale.ROOT));
+        line.append(",\"message\":");
+        appendString(event.getMessage());
+        line.append(",\"hint\":");
+        appendString(event.getHint());
+        line.append(",\"timestamp\":").append(event.getTimestamp());
+        line.append(",\"thread\":");
+        appendString(event.getThread());
+        line.append(",\"durationNanos\":");
+        if (event.getDurationNanos() == AssertionEvent.UNTIMED) {
+            line.append("null");
+        } else {
+            line.append(event.getDurationNanos());
+        }
+        line.append("}\n");
+
+        encode(CharBuffer.wrap(line));
+    }
+
+    /**
+     * Write all events received so far to the file.
+     *
+     * @throws IOException if writing fails
+     */
+    public synchronized void flush() throws IOException {
+        drain();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        drain();
+        channel.close();
+    }
+
+    private void encode(CharBuffer chars) {
+        encoder.reset();
+        try {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            while (result.isOverflow()) {
+                drain();
+                result = encoder.encode(chars, buffer, true);
+            }
+            while (encoder.flush(buffer).isOverflow()) {
+                drain();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to export assertion event", e);
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void appendString(String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,77 @@
+package org.rnorth.visibleassertions;
+
+/**
+ * A point-in-time copy of a latency histogram.
+ */
+public final class LatencySnapshot {
+
+    private final long[] buckets;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    LatencySnapshot(long[] buckets, long count, long totalNanos, long maxNanos) {
+        this.buckets = buckets;
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * @return the number of durations recorded
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the sum of all durations recorded, in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return the mean duration in nanoseconds, or 0 if nothing has been recorded
+     */
+    public long getMeanNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    /**
+     * @return the longest duration recorded, in nanoseconds
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * @param percentile a percentile between 0 and 100, e.g. 99.9
+     * @return an upper bound (accurate to within 12.5%) on the duration at the given percentile, in nanoseconds
+     */
+    public long getPercentileNanos(double percentile) {
+        long recorded = 0;
+        for (long bucket : buckets) {
+            recorded += bucket;
+        }
+        if (recorded == 0) {
+            return 0;
+        }
+
+        long threshold = Math.max(1, (long) Math.ceil(recorded * percentile / 100.0));
+        long cumulative = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            cumulative += buckets[i];
+            if (cumulative >= threshold) {
+                return Math.min(LatencyHistogram.bucketUpperBound(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count + ", mean=" + getMeanNanos() + "ns, p50=" + getPercentileNanos(50) + "ns, p99="
+                + getPercentileNanos(99) + "ns, max=" + maxNanos + "ns";
+    }
+}
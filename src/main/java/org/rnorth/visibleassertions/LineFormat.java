@@ -0,0 +1,41 @@
+package org.rnorth.visibleassertions;
+
+import org.rnorth.ansi.Style;
+
+/**
+ * A kind of output line (e.g. a pass or an info message) with an indent, style and optional mark. The encoded form of
+ * everything except the message is cached, and only rebuilt if the ANSI capability changes.
+ */
+final class LineFormat {
+
+    private final String indent;
+    private final Style style;
+    private final String mark;
+
+    private volatile LineWriter.Template template;
+
+    /**
+     * @param indent leading whitespace, outside of the style
+     * @param style  style to apply to the mark and message
+     * @param mark   symbol to show before the message, or null for none
+     */
+    LineFormat(String indent, Style style, String mark) {
+        this.indent = indent;
+        this.style = style;
+        this.mark = mark;
+    }
+
+    /**
+     * Write a line containing the message.
+     *
+     * @param message message to write
+     */
+    void write(String message) {
+        LineWriter.Template current = template;
+        if (current == null || !current.isCurrent()) {
+            current = new LineWriter.Template(indent, style, mark);
+            template = current;
+        }
+        LineWriter.writeLine(current.prefix, message, current.suffix);
+    }
+}
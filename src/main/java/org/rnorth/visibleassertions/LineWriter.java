@@ -0,0 +1,93 @@
+package org.rnorth.visibleassertions;
+
+import org.rnorth.ansi.AnsiEncoder;
+import org.rnorth.ansi.AnsiLite;
+import org.rnorth.ansi.Style;
+
+import java.nio.charset.Charset;
+
+/**
+ * Writes lines of output, indented for any open {@link ContextScope}, straight to {@link Output} as bytes, built in a per-thread {@link AnsiEncoder}.
+ * <p>
+ * Prefixes, suffixes and other repeated fragments are pre-encoded, so only the message itself needs encoding. When the
+ * default charset is UTF-8 that is done without a {@link java.nio.charset.CharsetEncoder}. Once each thread's buffer
+ * has grown to fit the longest line seen, writing a line does not allocate.
+ */
+final class LineWriter {
+
+    private static final Charset CHARSET = Charset.defaultCharset();
+
+    static final byte[] LINE_SEPARATOR = encode(System.lineSeparator());
+    static final byte[] SPACE = encode(" ");
+
+    private static final ThreadLocal<AnsiEncoder> ENCODERS = new ThreadLocal<AnsiEncoder>() {
+        @Override
+        protected AnsiEncoder initialValue() {
+            return new AnsiEncoder(CHARSET);
+        }
+    };
+
+    private LineWriter() {
+        // Utility class - don't allow construction
+    }
+
+    /**
+     * A pre-encoded prefix and suffix for lines in a particular style, captured for the ANSI capability at the time
+     * of creation.
+     */
+    static final class Template {
+        final boolean ansi;
+        final byte[] prefix;
+        final byte[] suffix;
+
+        Template(String indent, Style style, String mark) {
+            this.ansi = AnsiLite.isEnabled();
+            this.prefix = encode(indent + style.prefix() + (mark == null ? "" : mark + " "));
+            this.suffix = encode(style.suffix() + System.lineSeparator());
+        }
+
+        /**
+         * @return whether this template still reflects the current ANSI capability
+         */
+        boolean isCurrent() {
+            return ansi == AnsiLite.isEnabled();
+        }
+    }
+
+    /**
+     * Encode bytes using the same charset that {@link LineWriter} uses for messages.
+     *
+     * @param s string to encode
+     * @return encoded bytes
+     */
+    static byte[] encode(String s) {
+        return s.getBytes(CHARSET);
+    }
+
+    /**
+     * Write a single line of output in one call.
+     *
+     * @param prefix  pre-encoded bytes to write before the message
+     * @param message message to encode
+     * @param suffix  pre-encoded bytes to write after the message, including the line separator
+     */
+    static void writeLine(byte[] prefix, CharSequence message, byte[] suffix) {
+        write(begin().append(SPACE, ContextScope.indent()).append(prefix).append(message).append(suffix));
+    }
+
+    /**
+     * @return the current thread's encoder, cleared ready for a new line to be built
+     */
+    static AnsiEncoder begin() {
+        return ENCODERS.get().clear();
+    }
+
+    /**
+     * Write everything built in an encoder obtained from {@link #begin()}.
+     *
+     * @param line the encoder holding one or more complete lines
+     */
+    static void write(AnsiEncoder line) {
+        Output.write(line.array(), 0, line.length());
+    }
+}
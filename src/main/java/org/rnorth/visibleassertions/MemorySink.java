@@ -0,0 +1,62 @@
+package org.rnorth.visibleassertions;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Output sink that accumulates output in memory, for example to inspect it in a test.
+ */
+public class MemorySink implements OutputSink {
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    @Override
+    public synchronized void write(byte[] bytes, int offset, int length) {
+        buffer.write(bytes, offset, length);
+    }
+
+    @Override
+    public void flush() {
+        // Nothing to do
+    }
+
+    /**
+     * Write everything accumulated so far to another sink as a single block.
+     *
+     * @param sink the sink to write to
+     */
+    public synchronized void writeTo(OutputSink sink) {
+        if (buffer.size() > 0) {
+            sink.write(buffer.toByteArray(), 0, buffer.size());
+        }
+    }
+
+    /**
+     * @return a copy of everything accumulated so far
+     */
+    public synchronized byte[] toByteArray() {
+        return buffer.toByteArray();
+    }
+
+    /**
+     * @return the number of bytes accumulated so far
+     */
+    public synchronized int size() {
+        return buffer.size();
+    }
+
+    /**
+     * Discard everything accumulated so far.
+     */
+    public synchronized void reset() {
+        buffer.reset();
+    }
+
+    /**
+     * @return everything accumulated so far, decoded as text
+     */
+    @Override
+    public synchronized String toString() {
+        return new String(buffer.toByteArray(), Charset.defaultCharset());
+    }
+}
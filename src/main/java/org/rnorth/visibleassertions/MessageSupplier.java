@@ -0,0 +1,16 @@
+package org.rnorth.visibleassertions;
+
+/**
+ * Supplies an assertion message on demand.
+ * <p>
+ * The {@code ...Lazily} assertion methods, such as {@link VisibleAssertions#assertTrueLazily}, accept a MessageSupplier
+ * and only build the message if it will actually be used: when the assertion fails, or when it passes and passes are
+ * not silenced. This is useful when the message is expensive to build.
+ */
+public interface MessageSupplier {
+
+    /**
+     * @return the message
+     */
+    String get();
+}
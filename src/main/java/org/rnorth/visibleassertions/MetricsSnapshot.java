@@ -0,0 +1,48 @@
+package org.rnorth.visibleassertions;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A point-in-time copy of {@link AssertionMetrics}.
+ */
+public final class MetricsSnapshot {
+
+    private final Map<AssertionEvent.Type, Long> counts;
+    private final LatencySnapshot matcherLatency;
+    private final LatencySnapshot callableLatency;
+
+    MetricsSnapshot(EnumMap<AssertionEvent.Type, Long> counts, LatencySnapshot matcherLatency, LatencySnapshot callableLatency) {
+        this.counts = counts;
+        this.matcherLatency = matcherLatency;
+        this.callableLatency = callableLatency;
+    }
+
+    /**
+     * @param type a type of event
+     * @return how many events of the type have occurred
+     */
+    public long getCount(AssertionEvent.Type type) {
+        Long count = counts.get(type);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * @return time spent evaluating Hamcrest matchers in {@code assertThat}
+     */
+    public LatencySnapshot getMatcherLatency() {
+        return matcherLatency;
+    }
+
+    /**
+     * @return time spent running callables and runnables in {@code assertThrows}
+     */
+    public LatencySnapshot getCallableLatency() {
+        return callableLatency;
+    }
+
+    @Override
+    public String toString() {
+        return "counts=" + counts + ", matchers=[" + matcherLatency + "], callables=[" + callableLatency + "]";
+    }
+}
@@ -0,0 +1,117 @@
+package org.rnorth.visibleassertions;
+
+/**
+ * Single point through which all assertion output is written.
+ * <p>
+ * Output goes to the current thread's {@link OutputSink} if one has been set, and otherwise to the global sink. If the
+ * {@code visibleassertions.output.async} system property is set to true, output for the global sink is handed to a
+ * background {@link AsyncWriter} rather than written synchronously.
+ */
+final class Output {
+
+    private static final byte[] NO_BYTES = new byte[0];
+
+    private static final ThreadLocal<OutputSink> THREAD_SINK = new ThreadLocal<OutputSink>();
+
+    private static volatile OutputSink globalSink = new StdOutSink();
+    private static volatile AsyncWriter asyncWriter;
+
+    private Output() {
+        // Utility class - don't allow construction
+    }
+
+    /**
+     * Write a line of text, followed by the line separator.
+     *
+     * @param line line to write
+     */
+    static void println(Object line) {
+        LineWriter.writeLine(NO_BYTES, String.valueOf(line), LineWriter.LINE_SEPARATOR);
+    }
+
+    /**
+     * Write pre-encoded bytes. The bytes are copied if they need to outlive this call.
+     *
+     * @param bytes  buffer containing the bytes to write
+     * @param offset offset of the first byte to write
+     * @param length number of bytes to write
+     */
+    static void write(byte[] bytes, int offset, int length) {
+        OutputSink threadSink = THREAD_SINK.get();
+        if (threadSink != null) {
+            threadSink.write(bytes, offset, length);
+        } else if (Config.get().async) {
+            asyncWriter().enqueue(copyOf(bytes, offset, length));
+        } else {
+            flushPendingAsync();
+            globalSink.write(bytes, offset, length);
+        }
+    }
+
+    /**
+     * Block until all output written so far by this thread has reached its sink, and flush the sink.
+     */
+    static void flush() {
+        OutputSink threadSink = THREAD_SINK.get();
+        if (threadSink != null) {
+            threadSink.flush();
+        } else if (Config.get().async) {
+            // The writer thread flushes the sink after each batch, and reports any failure itself
+            asyncWriter().flush();
+        } else {
+            flushPendingAsync();
+            globalSink.flush();
+        }
+    }
+
+    static OutputSink globalSink() {
+        return globalSink;
+    }
+
+    static void setGlobalSink(OutputSink sink) {
+        if (sink == null) {
+            throw new NullPointerException("sink must not be null");
+        }
+        flushPendingAsync();
+        globalSink = sink;
+    }
+
+    static OutputSink threadSink() {
+        return THREAD_SINK.get();
+    }
+
+    static void setThreadSink(OutputSink sink) {
+        if (sink == null) {
+            THREAD_SINK.remove();
+        } else {
+            THREAD_SINK.set(sink);
+        }
+    }
+
+    private static byte[] copyOf(byte[] bytes, int offset, int length) {
+        byte[] copy = new byte[length];
+        System.arraycopy(bytes, offset, copy, 0, length);
+        return copy;
+    }
+
+    private static void flushPendingAsync() {
+        AsyncWriter writer = asyncWriter;
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    private static AsyncWriter asyncWriter() {
+        AsyncWriter writer = asyncWriter;
+        if (writer == null) {
+            synchronized (Output.class) {
+                writer = asyncWriter;
+                if (writer == null) {
+                    writer = new AsyncWriter();
+                    asyncWriter = writer;
+                }
+            }
+        }
+        return writer;
+    }
+}
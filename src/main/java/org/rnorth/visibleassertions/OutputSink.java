@@ -0,0 +1,29 @@
+package org.rnorth.visibleassertions;
+
+/**
+ * Destination for assertion output.
+ * <p>
+ * By default output is written to stdout by a {@link StdOutSink}. A different sink may be installed for the whole JVM
+ * using {@link VisibleAssertions#setOutputSink(OutputSink)}, or for the current thread only using
+ * {@link VisibleAssertions#setThreadOutputSink(OutputSink)}.
+ * <p>
+ * Implementations must be safe for use from multiple threads.
+ */
+public interface OutputSink {
+
+    /**
+     * Write encoded output. Each call contains one or more complete lines, each ending with the line separator.
+     * <p>
+     * The bytes are only valid for the duration of the call, so must be copied if they need to be retained.
+     *
+     * @param bytes  buffer containing the bytes to write
+     * @param offset offset of the first byte to write
+     * @param length number of bytes to write
+     */
+    void write(byte[] bytes, int offset, int length);
+
+    /**
+     * Ensure that everything written so far has reached its final destination.
+     */
+    void flush();
+}
@@ -0,0 +1,179 @@
+package org.rnorth.visibleassertions;
+
+import org.hamcrest.Matcher;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Polls a value until it matches, an exception which should not be retried is thrown, or a deadline passes.
+ * <p>
+ * Attempts run on a small scheduler shared by all polls, rather than each waiting assertion sleeping in a loop of its
+ * own; the asserting thread simply waits for the outcome. Only one attempt of a given poll is in flight at a time.
+ */
+final class Poller<T> implements Runnable {
+
+    private static final ScheduledThreadPoolExecutor SCHEDULER = createScheduler();
+
+    private final Callable<T> probe;
+    private final Matcher<? super T> matcher;
+    private final Polling polling;
+    private final long start;
+    private final long deadline;
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    private long intervalNanos;
+    private volatile Future<?> next;
+    private volatile boolean cancelled;
+
+    private volatile int attempts;
+    private volatile boolean matched;
+    private volatile T lastValue;
+    private volatile Throwable lastException;
+    private volatile boolean failedFast;
+
+    private Poller(Callable<T> probe, Matcher<? super T> matcher, Polling polling, long timeoutNanos) {
+        this.probe = probe;
+        this.matcher = matcher;
+        this.polling = polling;
+        this.start = System.nanoTime();
+        this.deadline = start + timeoutNanos;
+        this.intervalNanos = polling.minIntervalNanos();
+    }
+
+    /**
+     * Poll until the value returned by the probe matches, or the timeout elapses.
+     *
+     * @return the poller, for inspection of the outcome
+     */
+    static <T> Poller<T> poll(Callable<T> probe, Matcher<? super T> matcher, Polling polling, long timeoutNanos) {
+        Poller<T> poller = new Poller<T>(probe, matcher, polling, timeoutNanos);
+        poller.next = SCHEDULER.submit(poller);
+        poller.await();
+        return poller;
+    }
+
+    @Override
+    public void run() {
+        if (cancelled) {
+            return;
+        }
+
+        long attemptStart = System.nanoTime();
+        attempts++;
+        try {
+            T value = probe.call();
+            lastValue = value;
+            lastException = null;
+            if (matcher.matches(value)) {
+                matched = true;
+                done.countDown();
+                return;
+            }
+        } catch (Throwable e) {
+            if (cancelled) {
+                return;
+            }
+            lastException = e;
+            if (!polling.isRetryable(e)) {
+                failedFast = true;
+                done.countDown();
+                return;
+            }
+        }
+
+        long now = System.nanoTime();
+        long remaining = deadline - now;
+        if (remaining <= 0 || cancelled) {
+            done.countDown();
+            return;
+        }
+
+        long delay = Math.min(Math.max(intervalNanos, now - attemptStart), remaining);
+        intervalNanos = Math.min(intervalNanos * 2, polling.maxIntervalNanos());
+        next = SCHEDULER.schedule(this, delay, TimeUnit.NANOSECONDS);
+    }
+
+    private void await() {
+        try {
+            // Allow an attempt which starts just before the deadline to finish, within reason
+            long grace = Math.max(polling.minIntervalNanos(), TimeUnit.MILLISECONDS.toNanos(100));
+            if (done.await(deadline - System.nanoTime() + grace, TimeUnit.NANOSECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        cancelled = true;
+        Future<?> pending = next;
+        if (pending != null) {
+            pending.cancel(true);
+        }
+    }
+
+    /**
+     * @return whether polling finished, rather than an attempt still being in progress when it was abandoned
+     */
+    boolean isFinished() {
+        return done.getCount() == 0;
+    }
+
+    boolean isMatched() {
+        return matched;
+    }
+
+    /**
+     * @return whether polling stopped early because the probe threw an exception which should not be retried
+     */
+    boolean isFailedFast() {
+        return failedFast;
+    }
+
+    int getAttempts() {
+        return attempts;
+    }
+
+    long getElapsedNanos() {
+        return System.nanoTime() - start;
+    }
+
+    T getLastValue() {
+        return lastValue;
+    }
+
+    Throwable getLastException() {
+        return lastException;
+    }
+
+    /**
+     * @return a summary of the attempts made, e.g. "after 3 attempts in 120ms"
+     */
+    String describeAttempts() {
+        int count = attempts;
+        return "after " + count + (count == 1 ? " attempt" : " attempts") + " in "
+                + TimeUnit.NANOSECONDS.toMillis(getElapsedNanos()) + "ms";
+    }
+
+    private static ScheduledThreadPoolExecutor createScheduler() {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(
+                Math.max(2, Runtime.getRuntime().availableProcessors()),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "visible-assertions-poller-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        scheduler.setKeepAliveTime(10, TimeUnit.SECONDS);
+        scheduler.allowCoreThreadTimeOut(true);
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+}
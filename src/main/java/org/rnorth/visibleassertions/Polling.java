@@ -0,0 +1,86 @@
+package org.rnorth.visibleassertions;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How {@code assertEventually} polls a condition: the range of intervals between attempts, and which exceptions
+ * thrown by the condition should be retried rather than failing the assertion immediately.
+ * <p>
+ * The interval starts at the minimum and doubles after each unsuccessful attempt up to the maximum, but is never less
+ * than the time the previous attempt took, so that a slow condition is not polled back to back. A final attempt is
+ * always made at the deadline.
+ * <p>
+ * Instances are immutable; e.g.:
+ * <pre>
+ *     Polling.every(50, 500, TimeUnit.MILLISECONDS).retryingOn(IOException.class)
+ * </pre>
+ */
+public final class Polling {
+
+    /**
+     * Poll between every 10ms and every second, retrying no exceptions.
+     */
+    public static final Polling DEFAULT = every(10, 1000, TimeUnit.MILLISECONDS);
+
+    private final long minIntervalNanos;
+    private final long maxIntervalNanos;
+    private final Class<?>[] retryable;
+
+    private Polling(long minIntervalNanos, long maxIntervalNanos, Class<?>[] retryable) {
+        this.minIntervalNanos = minIntervalNanos;
+        this.maxIntervalNanos = maxIntervalNanos;
+        this.retryable = retryable;
+    }
+
+    /**
+     * @param minInterval the interval before the second attempt
+     * @param maxInterval the longest interval between attempts
+     * @param unit        unit of the intervals
+     * @return polling settings with the given intervals, retrying no exceptions
+     */
+    public static Polling every(long minInterval, long maxInterval, TimeUnit unit) {
+        if (minInterval <= 0 || maxInterval < minInterval) {
+            throw new IllegalArgumentException("Intervals must be positive, and the maximum must be no less than the minimum");
+        }
+        return new Polling(unit.toNanos(minInterval), unit.toNanos(maxInterval), new Class<?>[0]);
+    }
+
+    /**
+     * @param exceptionClasses classes of exception (including subclasses) which, if thrown by the condition, should be
+     *                         treated as the condition not being met yet
+     * @return polling settings which also retry the given exceptions
+     */
+    @SafeVarargs
+    public final Polling retryingOn(Class<? extends Throwable>... exceptionClasses) {
+        Class<?>[] combined = Arrays.copyOf(retryable, retryable.length + exceptionClasses.length);
+        // Copied element by element so that the varargs array itself is never passed on
+        for (int i = 0; i < exceptionClasses.length; i++) {
+            combined[retryable.length + i] = exceptionClasses[i];
+        }
+        return new Polling(minIntervalNanos, maxIntervalNanos, combined);
+    }
+
+    long minIntervalNanos() {
+        return minIntervalNanos;
+    }
+
+    long maxIntervalNanos() {
+        return maxIntervalNanos;
+    }
+
+    boolean isRetryable(Throwable throwable) {
+        for (Class<?> retryableClass : retryable) {
+            if (retryableClass.isInstance(throwable)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "Polling[" + TimeUnit.NANOSECONDS.toMillis(minIntervalNanos) + "ms-"
+                + TimeUnit.NANOSECONDS.toMillis(maxIntervalNanos) + "ms, retrying " + Arrays.toString(retryable) + "]";
+    }
+}
@@ -0,0 +1,334 @@
+package org.rnorth.visibleassertions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Comparison of arrays and iterables which stops at the first difference, and describes it with a small window of
+ * elements either side rather than the whole of both sequences, e.g.:
+ * <pre>
+ * differs at index 6: expected [..., 4, 5, &gt;6&lt;, 7, 8, 9, ...] but was [..., 4, 5, &gt;0&lt;, 7, 8, 9, ...]
+ * </pre>
+ * Primitive arrays are compared and rendered without boxing.
+ */
+final class SequenceDiff {
+
+    /* Number of elements shown either side of the first difference */
+    static final int CONTEXT = 3;
+
+    private SequenceDiff() {
+        // Utility class - don't allow construction
+    }
+
+    /**
+     * @return a description of the first difference between the arrays, or null if they are equal
+     */
+    static String diff(final int[] expected, final int[] actual) {
+        int length = Math.min(expected.length, actual.length);
+        for (int i = 0; i < length; i++) {
+            if (expected[i] != actual[i]) {
+                return describe(i, expected, actual);
+            }
+        }
+        return expected.length == actual.length ? null : describe(length, expected, actual);
+    }
+
+    static String diff(final long[] expected, final long[] actual) {
+        int length = Math.min(expected.length, actual.length);
+        for (int i = 0; i < length; i++) {
+            if (expected[i] != actual[i]) {
+                return describe(i, expected, actual);
+            }
+        }
+        return expected.length == actual.length ? null : describe(length, expected, actual);
+    }
+
+    static String diff(final double[] expected, final double[] actual) {
+        int length = Math.min(expected.length, actual.length);
+        for (int i = 0; i < length; i++) {
+            // Same definition of equality as Arrays.equals(double[], double[]): NaN equals NaN, 0.0 differs from -0.0
+            if (Double.doubleToLongBits(expected[i]) != Double.doubleToLongBits(actual[i])) {
+                return describe(i, expected, actual);
+            }
+        }
+        return expected.length == actual.length ? null : describe(length, expected, actual);
+    }
+
+    static String diff(final byte[] expected, final byte[] actual) {
+        int length = Math.min(expected.length, actual.length);
+        for (int i = 0; i < length; i++) {
+            if (expected[i] != actual[i]) {
+                return describe(i, expected, actual);
+            }
+        }
+        return expected.length == actual.length ? null : describe(length, expected, actual);
+    }
+
+    static String diff(final Object[] expected, final Object[] actual) {
+        int length = Math.min(expected.length, actual.length);
+        for (int i = 0; i < length; i++) {
+            if (!isEqual(expected[i], actual[i])) {
+                return describe(i, Arrays.asList(expected), Arrays.asList(actual));
+            }
+        }
+        return expected.length == actual.length ? null : describe(length, Arrays.asList(expected), Arrays.asList(actual));
+    }
+
+    /**
+     * Compare two iterables, element by element. Only the last few elements are retained while iterating, so that the
+     * sequences can be of any length.
+     *
+     * @return a description of the first difference between the iterables, or null if they are equal
+     */
+    static String diff(Iterable<?> expected, Iterable<?> actual) {
+        Iterator<?> expectedIterator = expected.iterator();
+        Iterator<?> actualIterator = actual.iterator();
+
+        Object[] previousExpected = new Object[CONTEXT];
+        Object[] previousActual = new Object[CONTEXT];
+        int index = 0;
+        while (expectedIterator.hasNext() && actualIterator.hasNext()) {
+            Object expectedElement = expectedIterator.next();
+            Object actualElement = actualIterator.next();
+            if (!isEqual(expectedElement, actualElement)) {
+                return describe(index,
+                        window(previousExpected, index, expectedElement, expectedIterator),
+                        window(previousActual, index, actualElement, actualIterator));
+            }
+            previousExpected[index % CONTEXT] = expectedElement;
+            previousActual[index % CONTEXT] = actualElement;
+            index++;
+        }
+
+        if (expectedIterator.hasNext() || actualIterator.hasNext()) {
+            return describe(index,
+                    window(previousExpected, index, expectedIterator),
+                    window(previousActual, index, actualIterator));
+        }
+        return null;
+    }
+
+    /**
+     * Find the first expected element which the actual elements do not contain. If the actual elements are not already
+     * a {@link Set}, they are copied into a hash set once, so that each lookup is constant time.
+     *
+     * @return a description of the first missing element, or null if all are present
+     */
+    static String firstMissing(Iterable<?> expected, Iterable<?> actual) {
+        Set<?> actualElements;
+        if (actual instanceof Set) {
+            actualElements = (Set<?>) actual;
+        } else if (actual instanceof Collection) {
+            actualElements = new HashSet<Object>((Collection<?>) actual);
+        } else {
+            Set<Object> copy = new HashSet<Object>();
+            for (Object element : actual) {
+                copy.add(element);
+            }
+            actualElements = copy;
+        }
+
+        int index = 0;
+        for (Object element : expected) {
+            if (!actualElements.contains(element)) {
+                StringBuilder sb = new StringBuilder(64);
+                if (element == null) {
+                    sb.append("null");
+                } else {
+                    HintRenderer.append(sb.append('\''), element, HintRenderer.maxLength()).append('\'');
+                }
+                return sb.append(" (expected element ").append(index).append(") was not found").toString();
+            }
+            index++;
+        }
+        return null;
+    }
+
+    /*
+     * Share the hint length limit between the elements shown in both windows
+     */
+    private static int elementMaxLength() {
+        return HintRenderer.maxLength() / (4 * CONTEXT + 2);
+    }
+
+    static boolean isEqual(Object expected, Object actual) {
+        return expected == null ? actual == null : expected.equals(actual);
+    }
+
+    /*
+     * A window of an iterable: up to CONTEXT previous elements, the element at index (if any), and up to CONTEXT + 1
+     * following elements, the last of which is only used to tell whether the sequence continues.
+     */
+    private static Window window(Object[] previous, int index, Object element, Iterator<?> rest) {
+        List<Object> elements = previousElements(previous, index);
+        elements.add(element);
+        return window(elements, index, rest);
+    }
+
+    private static Window window(Object[] previous, int index, Iterator<?> rest) {
+        return window(previousElements(previous, index), index, rest);
+    }
+
+    private static Window window(final List<Object> elements, int index, Iterator<?> rest) {
+        final int start = Math.max(0, index - CONTEXT);
+        final int limit = index - start + CONTEXT + 2;
+        while (elements.size() < limit && rest.hasNext()) {
+            elements.add(rest.next());
+        }
+        return new Window() {
+            @Override
+            boolean has(int i) {
+                return i >= start && i - start < elements.size();
+            }
+
+            @Override
+            void append(StringBuilder sb, int i) {
+                HintRenderer.append(sb, elements.get(i - start), elementMaxLength());
+            }
+        };
+    }
+
+    private static List<Object> previousElements(Object[] previous, int index) {
+        List<Object> elements = new ArrayList<Object>(2 * CONTEXT + 2);
+        for (int i = Math.max(0, index - CONTEXT); i < index; i++) {
+            elements.add(previous[i % CONTEXT]);
+        }
+        return elements;
+    }
+
+    private static String describe(int index, final int[] expected, final int[] actual) {
+        return describe(index, new ArrayWindow(expected.length) {
+            @Override
+            void append(StringBuilder sb, int i) {
+                sb.append(expected[i]);
+            }
+        }, new ArrayWindow(actual.length) {
+            @Override
+            void append(StringBuilder sb, int i) {
+                sb.append(actual[i]);
+            }
+        });
+    }
+
+    private static String describe(int index, final long[] expected, final long[] actual) {
+        return describe(index, new ArrayWindow(expected.length) {
+            @Override
+            void append(StringBuilder sb, int i) {
+                sb.append(expected[i]);
+            }
+        }, new ArrayWindow(actual.length) {
+            @Override
+            void append(StringBuilder sb, int i) {
+                sb.append(actual[i]);
+            }
+        });
+    }
+
+    private static String describe(int index, final double[] expected, final double[] actual) {
+        return describe(index, new ArrayWindow(expected.length) {
+            @Override
+            void append(StringBuilder sb, int i) {
+                sb.append(expected[i]);
+            }
+        }, new ArrayWindow(actual.length) {
+            @Override
+            void append(StringBuilder sb, int i) {
+                sb.append(actual[i]);
+            }
+        });
+    }
+
+    private static String describe(int index, final byte[] expected, final byte[] actual) {
+        return describe(index, new ArrayWindow(expected.length) {
+            @Override
+            void append(StringBuilder sb, int i) {
+                sb.append(expected[i]);
+            }
+        }, new ArrayWindow(actual.length) {
+            @Override
+            void append(StringBuilder sb, int i) {
+                sb.append(actual[i]);
+            }
+        });
+    }
+
+    private static String describe(int index, final List<?> expected, final List<?> actual) {
+        return describe(index, new ArrayWindow(expected.size()) {
+            @Override
+            void append(StringBuilder sb, int i) {
+                HintRenderer.append(sb, expected.get(i), elementMaxLength());
+            }
+        }, new ArrayWindow(actual.size()) {
+            @Override
+            void append(StringBuilder sb, int i) {
+                HintRenderer.append(sb, actual.get(i), elementMaxLength());
+            }
+        });
+    }
+
+    private static String describe(int index, Window expected, Window actual) {
+        StringBuilder sb = new StringBuilder(128);
+        if (!actual.has(index)) {
+            sb.append("actual has only ").append(index).append(index == 1 ? " element" : " elements");
+        } else if (!expected.has(index)) {
+            sb.append("actual has more than the expected ").append(index).append(index == 1 ? " element" : " elements");
+        } else {
+            sb.append("differs at index ").append(index);
+        }
+        sb.append(": expected ");
+        appendWindow(sb, expected, index);
+        sb.append(" but was ");
+        appendWindow(sb, actual, index);
+        return sb.toString();
+    }
+
+    private static void appendWindow(StringBuilder sb, Window window, int index) {
+        int start = Math.max(0, index - CONTEXT);
+        int end = index + CONTEXT;
+
+        sb.append('[');
+        if (start > 0) {
+            sb.append("...");
+        }
+        for (int i = start; i <= end && window.has(i); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            if (i == index) {
+                sb.append('>');
+                window.append(sb, i);
+                sb.append('<');
+            } else {
+                window.append(sb, i);
+            }
+        }
+        if (window.has(end + 1)) {
+            sb.append(", ...");
+        }
+        sb.append(']');
+    }
+
+    private abstract static class Window {
+        abstract boolean has(int index);
+
+        abstract void append(StringBuilder sb, int index);
+    }
+
+    private abstract static class ArrayWindow extends Window {
+        private final int length;
+
+        ArrayWindow(int length) {
+            this.length = length;
+        }
+
+        @Override
+        boolean has(int index) {
+            return index >= 0 && index < length;
+        }
+    }
+}
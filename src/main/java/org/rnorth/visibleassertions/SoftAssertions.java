@@ -0,0 +1,160 @@
+package org.rnorth.visibleassertions;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A soft assertion scope, opened with {@link VisibleAssertions#softly()}. While the scope is open, assertions which
+ * fail on the thread that opened it are shown and recorded instead of throwing, and {@link #close()} throws a single
+ * {@link AssertionError} summarising them.
+ * <p>
+ * Memory and output are bounded: failures with the same message and hint are shown once and counted, and only the
+ * first {@code maxRendered} distinct failures are shown and retained. Further distinct failures are only counted.
+ * <p>
+ * Scopes may be nested; when an inner scope is closed its failures are added to the enclosing scope rather than
+ * thrown.
+ */
+public final class SoftAssertions implements AutoCloseable {
+
+    /**
+     * Default maximum number of distinct failures to show.
+     */
+    public static final int DEFAULT_MAX_RENDERED = 100;
+
+    private static final ThreadLocal<SoftAssertions> CURRENT = new ThreadLocal<SoftAssertions>();
+
+    private final SoftAssertions parent;
+    private final int maxRendered;
+    private final Map<String, Failure> failures = new LinkedHashMap<String, Failure>();
+    private long failureCount;
+    private long notRenderedCount;
+    private boolean closed;
+
+    private SoftAssertions(SoftAssertions parent, int maxRendered) {
+        if (maxRendered < 0) {
+            throw new IllegalArgumentException("maxRendered must not be negative");
+        }
+        this.parent = parent;
+        this.maxRendered = maxRendered;
+    }
+
+    static SoftAssertions open(int maxRendered) {
+        SoftAssertions scope = new SoftAssertions(CURRENT.get(), maxRendered);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * @return the innermost open scope on the current thread, or null if there is none
+     */
+    static SoftAssertions current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Record a failure.
+     *
+     * @return whether this is a new failure which should be shown
+     */
+    boolean record(String message, String hint) {
+        return record(message, hint, 1);
+    }
+
+    private boolean record(String message, String hint, long count) {
+        failureCount += count;
+
+        String key = message + '\u0000' + hint;
+        Failure existing = failures.get(key);
+        if (existing != null) {
+            existing.count += count;
+            return false;
+        }
+        if (failures.size() >= maxRendered) {
+            notRenderedCount += count;
+            return false;
+        }
+        failures.put(key, new Failure(message, hint, count));
+        return true;
+    }
+
+    /**
+     * @return total number of failures recorded, including repeats
+     */
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * @return whether any failures have been recorded
+     */
+    public boolean hasFailures() {
+        return failureCount > 0;
+    }
+
+    /**
+     * Close the scope.
+     *
+     * @throws AssertionError if any failures were recorded and this is the outermost scope
+     * @throws IllegalStateException if this is not the innermost open scope on the current thread
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        if (CURRENT.get() != this) {
+            throw new IllegalStateException("Soft assertion scopes must be closed by the thread that opened them, innermost first");
+        }
+        closed = true;
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+
+        if (failureCount == 0) {
+            return;
+        }
+
+        if (parent != null) {
+            for (Failure failure : failures.values()) {
+                parent.record(failure.message, failure.hint, failure.count);
+            }
+            parent.failureCount += notRenderedCount;
+            parent.notRenderedCount += notRenderedCount;
+            return;
+        }
+
+        String summary = failureCount + (failureCount == 1 ? " soft assertion failed" : " soft assertions failed");
+        VisibleAssertions.failSoftScope(summary, describeFailures());
+    }
+
+    private String describeFailures() {
+        StringBuilder sb = new StringBuilder();
+        for (Failure failure : failures.values()) {
+            sb.append(System.lineSeparator()).append("    ").append(failure.message);
+            if (failure.hint != null) {
+                sb.append(": ").append(failure.hint);
+            }
+            if (failure.count > 1) {
+                sb.append(" (x").append(failure.count).append(')');
+            }
+        }
+        if (notRenderedCount > 0) {
+            sb.append(System.lineSeparator()).append("    ... and ").append(notRenderedCount).append(" more not shown");
+        }
+        return sb.toString();
+    }
+
+    private static final class Failure {
+        private final String message;
+        private final String hint;
+        private long count;
+
+        private Failure(String message, String hint, long count) {
+            this.message = message;
+            this.hint = hint;
+            this.count = count;
+        }
+    }
+}
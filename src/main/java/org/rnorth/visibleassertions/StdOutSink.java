@@ -0,0 +1,19 @@
+package org.rnorth.visibleassertions;
+
+/**
+ * Output sink that writes to stdout. This is the default sink.
+ * <p>
+ * {@link System#out} is looked up on every write, so that redirection via {@link System#setOut} is respected.
+ */
+public class StdOutSink implements OutputSink {
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        System.out.write(bytes, offset, length);
+    }
+
+    @Override
+    public void flush() {
+        System.out.flush();
+    }
+}
@@ -0,0 +1,43 @@
+package org.rnorth.visibleassertions;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter which spreads updates across several cells, chosen by thread, so that threads updating it concurrently
+ * rarely contend on the same cache line. Reading the total sums the cells.
+ */
+final class StripedCounter {
+
+    /* Cells are spaced this many longs apart, so that each sits on its own cache line */
+    private static final int PADDING = 8;
+    private static final int STRIPES = nextPowerOfTwo(Runtime.getRuntime().availableProcessors() * 2);
+
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+
+    void add(long value) {
+        int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        cells.getAndAdd(stripe * PADDING, value);
+    }
+
+    void increment() {
+        add(1);
+    }
+
+    long sum() {
+        long sum = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    void reset() {
+        for (int i = 0; i < STRIPES; i++) {
+            cells.set(i * PADDING, 0);
+        }
+    }
+
+    private static int nextPowerOfTwo(int value) {
+        return Integer.highestOneBit(Math.max(1, value - 1)) << 1;
+    }
+}
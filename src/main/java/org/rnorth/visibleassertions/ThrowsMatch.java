@@ -0,0 +1,76 @@
+package org.rnorth.visibleassertions;
+
+/**
+ * How {@code assertThrows} decides whether a thrown exception is the one expected.
+ */
+public enum ThrowsMatch {
+
+    /**
+     * The thrown exception must be exactly of the expected class, not a subclass.
+     */
+    EXACT {
+        @Override
+        Throwable find(Throwable thrown, Class<? extends Throwable> expectedClass) {
+            return thrown.getClass().equals(expectedClass) ? thrown : null;
+        }
+
+        @Override
+        String describe(Class<? extends Throwable> expectedClass) {
+            return expectedClass.getSimpleName();
+        }
+    },
+
+    /**
+     * The thrown exception must be of the expected class or a subclass of it.
+     */
+    SUBCLASS {
+        @Override
+        Throwable find(Throwable thrown, Class<? extends Throwable> expectedClass) {
+            return expectedClass.isInstance(thrown) ? thrown : null;
+        }
+
+        @Override
+        String describe(Class<? extends Throwable> expectedClass) {
+            return expectedClass.getSimpleName() + " or a subclass";
+        }
+    },
+
+    /**
+     * The thrown exception, or one of its causes, must be of the expected class or a subclass of it. The first such
+     * exception in the cause chain is the one matched.
+     */
+    CAUSE {
+        @Override
+        Throwable find(Throwable thrown, Class<? extends Throwable> expectedClass) {
+            Throwable candidate = thrown;
+            // Bound the walk in case of a cyclic cause chain
+            for (int depth = 0; candidate != null && depth < MAX_CAUSE_DEPTH; depth++) {
+                if (expectedClass.isInstance(candidate)) {
+                    return candidate;
+                }
+                if (candidate.getCause() == candidate) {
+                    break;
+                }
+                candidate = candidate.getCause();
+            }
+            return null;
+        }
+
+        @Override
+        String describe(Class<? extends Throwable> expectedClass) {
+            return expectedClass.getSimpleName() + " or an exception caused by one";
+        }
+    };
+
+    private static final int MAX_CAUSE_DEPTH = 100;
+
+    /**
+     * @return the exception matched, or null if there is none
+     */
+    abstract Throwable find(Throwable thrown, Class<? extends Throwable> expectedClass);
+
+    /**
+     * @return a description of the exceptions which would be matched, for a failure hint
+     */
+    abstract String describe(Class<? extends Throwable> expectedClass);
+}
@@ -0,0 +1,148 @@
+package org.rnorth.visibleassertions;
+
+/**
+ * Ways of deciding whether two floating point values are close enough to be considered equal.
+ * <p>
+ * Each mode measures the deviation between two values without allocating, so that passing assertions cost nothing
+ * beyond the arithmetic; failure hints are only built once a deviation is found to be too large. A NaN on either side
+ * is never within tolerance.
+ */
+enum Tolerance {
+
+    /**
+     * The absolute difference must be strictly less than the tolerance.
+     */
+    ABSOLUTE {
+        @Override
+        double deviation(double expected, double actual) {
+            return Math.abs(actual - expected);
+        }
+
+        @Override
+        double deviation(float expected, float actual) {
+            return Math.abs(actual - expected);
+        }
+
+        @Override
+        boolean accepts(double deviation, double tolerance) {
+            return deviation < tolerance;
+        }
+
+        @Override
+        String describe(String expected, String actual, double deviation, String tolerance) {
+            return "'" + actual + "' differs from expected '" + expected + "' by more than allowed amount (" + tolerance + ")";
+        }
+    },
+
+    /**
+     * The absolute difference, as a fraction of the larger magnitude of the two values, must be no more than the
+     * tolerance.
+     */
+    RELATIVE {
+        @Override
+        double deviation(double expected, double actual) {
+            if (expected == actual) {
+                return 0;
+            }
+            return Math.abs(actual - expected) / Math.max(Math.abs(expected), Math.abs(actual));
+        }
+
+        @Override
+        double deviation(float expected, float actual) {
+            return deviation((double) expected, (double) actual);
+        }
+
+        @Override
+        boolean accepts(double deviation, double tolerance) {
+            return deviation <= tolerance;
+        }
+
+        @Override
+        String describe(String expected, String actual, double deviation, String tolerance) {
+            return "'" + actual + "' differs from expected '" + expected + "' by a relative amount of " + deviation
+                    + ", more than allowed (" + tolerance + ")";
+        }
+    },
+
+    /**
+     * The number of representable values between the two (units in the last place) must be no more than the
+     * tolerance.
+     */
+    ULPS {
+        @Override
+        double deviation(double expected, double actual) {
+            if (Double.isNaN(expected) || Double.isNaN(actual)) {
+                return Double.NaN;
+            }
+            long x = ordered(Double.doubleToLongBits(expected));
+            long y = ordered(Double.doubleToLongBits(actual));
+            long difference = x - y;
+            if (((x ^ y) & (x ^ difference)) < 0) {
+                // Overflowed: the values are at opposite ends of the range
+                return Long.MAX_VALUE;
+            }
+            return Math.abs(difference);
+        }
+
+        @Override
+        double deviation(float expected, float actual) {
+            if (Float.isNaN(expected) || Float.isNaN(actual)) {
+                return Double.NaN;
+            }
+            long x = ordered(Float.floatToIntBits(expected));
+            long y = ordered(Float.floatToIntBits(actual));
+            return Math.abs(x - y);
+        }
+
+        @Override
+        boolean accepts(double deviation, double tolerance) {
+            return deviation <= tolerance;
+        }
+
+        @Override
+        String describe(String expected, String actual, double deviation, String tolerance) {
+            return "'" + actual + "' differs from expected '" + expected + "' by " + (long) deviation
+                    + " ulps, more than allowed (" + tolerance + ")";
+        }
+
+        @Override
+        String formatLimit(double limit) {
+            return String.valueOf((long) limit);
+        }
+    };
+
+    /**
+     * @return how far apart the values are, in this mode's units, or NaN if they cannot be compared
+     */
+    abstract double deviation(double expected, double actual);
+
+    abstract double deviation(float expected, float actual);
+
+    /**
+     * @return whether a deviation is within the tolerance
+     */
+    abstract boolean accepts(double deviation, double tolerance);
+
+    /**
+     * @return a failure hint for values which are not within the tolerance
+     */
+    abstract String describe(String expected, String actual, double deviation, String tolerance);
+
+    /**
+     * @return a tolerance formatted for a failure hint
+     */
+    String formatLimit(double limit) {
+        return String.valueOf(limit);
+    }
+
+    /*
+     * Map the bits of a double onto a long such that adjacent doubles map to adjacent longs, and -0.0 and 0.0 to 0
+     */
+    private static long ordered(long bits) {
+        return bits < 0 ? Long.MIN_VALUE - bits : bits;
+    }
+
+    private static int ordered(int bits) {
+        return bits < 0 ? Integer.MIN_VALUE - bits : bits;
+    }
+}
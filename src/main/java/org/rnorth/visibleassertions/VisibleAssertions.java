@@ -16,18 +16,23 @@
 
 package org.rnorth.visibleassertions;
 
+import org.hamcrest.CoreMatchers;
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
 import org.hamcrest.StringDescription;
+import org.rnorth.ansi.AnsiEncoder;
+import org.rnorth.ansi.AnsiLite;
+import org.rnorth.ansi.Style;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
-import static org.rnorth.ansi.AnsiLite.*;
 
 /**
  * Assertions for use in Java tests, with contextual information on each assertion performed.
  * <p>
- * Output is to stdout, and is coloured if the terminal supports it.
+ * Output is to stdout by default, and is coloured if the terminal supports it. Output may be redirected elsewhere by
+ * installing an {@link OutputSink}.
  *
  * @author rnorth
  */
@@ -39,11 +44,32 @@ public class VisibleAssertions extends AnsiSupport {
     private static final String WARN_MARK = "\u26a0\ufe0e";
     private static final String CONTEXT_MARK = "\u2508";
 
+    private static final byte[] CONTEXT_MARK_BYTES = LineWriter.encode(CONTEXT_MARK);
+
+    private static final LineFormat INFO_LINE = new LineFormat("        ", Style.WHITE.and(Style.BRIGHT), INFO_MARK);
+    private static final LineFormat WARN_LINE = new LineFormat("        ", Style.YELLOW.and(Style.BRIGHT), WARN_MARK);
+    private static final LineFormat PASS_LINE = new LineFormat("        ", Style.GREEN, TICK_MARK);
+    private static final LineFormat FAIL_LINE = new LineFormat("        ", Style.RED, CROSS_MARK);
+    private static final LineFormat HINT_LINE = new LineFormat("            ", Style.YELLOW, null);
+    private static final LineFormat SCOPE_END_LINE = new LineFormat("        ", Style.DIM, CONTEXT_MARK);
+
     // Utility class, hidden constructor
     protected VisibleAssertions() {
 
     }
 
+    /**
+     * Re-read the {@code visibleassertions.*} system properties, including ANSI capability overrides.
+     * <p>
+     * Properties are read once, on first use, so that checking them costs nothing on each assertion. Call this method
+     * after changing any of them at runtime for the change to take effect.
+     */
+    public static void reconfigure() {
+        Config.reload();
+        AssertionMetrics.reconfigure();
+        AnsiLite.resetCapabilities();
+    }
+
     /**
      * Log an informational message.
      * <p>
@@ -52,11 +78,12 @@ public class VisibleAssertions extends AnsiSupport {
      * @param message message to output
      */
     public static void info(String message) {
-        if (Boolean.getBoolean("visibleassertions.silence")) {
+        Events.fire(AssertionEvent.Type.INFO, message, null, AssertionEvent.UNTIMED);
+        if (Config.get().silenced) {
             return;
         }
 
-        System.out.println("        " + white(bright(INFO_MARK + " " + message)));
+        INFO_LINE.write(String.valueOf(message));
     }
 
     /**
@@ -67,17 +94,19 @@ public class VisibleAssertions extends AnsiSupport {
      * @param message message to output
      */
     public static void warn(String message) {
-        if (Boolean.getBoolean("visibleassertions.silence")) {
+        Events.fire(AssertionEvent.Type.WARN, message, null, AssertionEvent.UNTIMED);
+        if (Config.get().silenced) {
             return;
         }
 
-        System.out.println("        " + yellow(bright(WARN_MARK + " " + message)));
+        WARN_LINE.write(String.valueOf(message));
     }
 
     /**
      * Log a contextual message, in the style of a 'dividing line' in the test output.
      * <p>
-     * The output will be in grey, surrounded by a horizontal line the full width of the current terminal (or 80 chars).
+     * The output will be in grey, surrounded by a horizontal line the full width of the current terminal (detected natively or from the
+     * COLUMNS environment variable, or 80 chars by default).
      *
      * @param context contextual message to output.
      */
@@ -88,30 +117,69 @@ public class VisibleAssertions extends AnsiSupport {
     /**
      * Log a contextual message, in the style of a 'dividing line' in the test output.
      * <p>
-     * The output will be in grey, surrounded by a horizontal line the full width of the current terminal (or 80 chars).
+     * The output will be in grey, surrounded by a horizontal line the full width of the current terminal (detected natively or from the
+     * COLUMNS environment variable, or 80 chars by default).
      *
      * @param context contextual message to output
      * @param indent  number of space characters to indent this line by
      */
     public static void context(CharSequence context, int indent) {
-        if (Boolean.getBoolean("visibleassertions.silence")) {
+        Events.fire(AssertionEvent.Type.CONTEXT, context, null, AssertionEvent.UNTIMED);
+        if (Config.get().silenced) {
             return;
         }
 
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < indent; i++) sb.append(" ");
-        for (int i = 0; i < 4; i++) sb.append(CONTEXT_MARK);
+        indent += ContextScope.indent();
+        int terminalWidth = Math.max(terminalWidth(), 4);
+        int columns = indent + 4 + 1 + context.length() + 1;
 
-        sb.append(" ");
-        sb.append(context);
+        AnsiEncoder line = LineWriter.begin();
+        line.start(Style.DIM)
+                .append(LineWriter.SPACE, indent)
+                .append(CONTEXT_MARK_BYTES, 4)
+                .append(LineWriter.SPACE)
+                .append(context)
+                .append(LineWriter.SPACE)
+                .append(CONTEXT_MARK_BYTES, terminalWidth - columns)
+                .end(Style.DIM)
+                .append(LineWriter.LINE_SEPARATOR);
+        LineWriter.write(line);
+    }
 
-        int terminalWidth = terminalWidth();
-        sb.append(" ");
-        for (int i = sb.length(); i < terminalWidth; i++) {
-            sb.append(CONTEXT_MARK);
-        }
+    /**
+     * Install an output sink for all threads which do not have their own sink set.
+     *
+     * @param sink the sink to write to; use a {@link StdOutSink} to restore the default
+     */
+    public static void setOutputSink(OutputSink sink) {
+        Output.setGlobalSink(sink);
+    }
 
-        System.out.println(dim(sb.toString()));
+    /**
+     * Install an output sink for the current thread only, overriding the global sink.
+     *
+     * @param sink the sink to write to, or null to revert to the global sink
+     */
+    public static void setThreadOutputSink(OutputSink sink) {
+        Output.setThreadSink(sink);
+    }
+
+    /**
+     * Register a listener to receive a structured {@link AssertionEvent} for every assertion and message.
+     *
+     * @param listener the listener to add
+     */
+    public static void addListener(AssertionListener listener) {
+        Events.addListener(listener);
+    }
+
+    /**
+     * Remove a previously registered listener.
+     *
+     * @param listener the listener to remove
+     */
+    public static void removeListener(AssertionListener listener) {
+        Events.removeListener(listener);
     }
 
     /**
@@ -146,6 +214,38 @@ public class VisibleAssertions extends AnsiSupport {
         }
     }
 
+    /**
+     * Assert that a value is true, building the message only if it is needed.
+     * <p>
+     * If the assertion passes, a green tick will be shown. If the assertion fails, a red cross will be shown.
+     *
+     * @param message supplier of the message to display alongside the assertion outcome
+     * @param value   value to test
+     */
+    public static void assertTrueLazily(MessageSupplier message, boolean value) {
+        if (value) {
+            pass(message);
+        } else {
+            fail(message.get(), null);
+        }
+    }
+
+    /**
+     * Assert that a value is false, building the message only if it is needed.
+     * <p>
+     * If the assertion passes, a green tick will be shown. If the assertion fails, a red cross will be shown.
+     *
+     * @param message supplier of the message to display alongside the assertion outcome
+     * @param value   value to test
+     */
+    public static void assertFalseLazily(MessageSupplier message, boolean value) {
+        if (!value) {
+            pass(message);
+        } else {
+            fail(message.get(), null);
+        }
+    }
+
     /**
      * Assert that an actual value is equal to an expected value.
      * <p>
@@ -158,20 +258,46 @@ public class VisibleAssertions extends AnsiSupport {
      * @param actual   the actual value
      */
     public static void assertEquals(String message, Object expected, Object actual) {
-
-        String expectedInQuotes = inQuotesIfNotNull(expected);
-        String actualInQuotes = inQuotesIfNotNull(actual);
-
-        if (areBothNull(expected, actual)) {
+        if (areBothNull(expected, actual) || isObjectEquals(expected, actual)) {
             pass(message);
-        } else if (isObjectEquals(expected, actual)) {
+        } else {
+            fail(message, notEqualHint(expected, actual));
+        }
+    }
+
+    /**
+     * Assert that an actual value is equal to an expected value, building the message only if it is needed.
+     * <p>
+     * Equality is tested with the standard Object equals() method, unless both values are null.
+     * <p>
+     * If the assertion passes, a green tick will be shown. If the assertion fails, a red cross will be shown.
+     *
+     * @param message  supplier of the message to display alongside the assertion outcome
+     * @param expected the expected value
+     * @param actual   the actual value
+     */
+    public static void assertEqualsLazily(MessageSupplier message, Object expected, Object actual) {
+        if (areBothNull(expected, actual) || isObjectEquals(expected, actual)) {
             pass(message);
-        } else if (isObjectStringEqualsButDifferentType(expected, actual)) {
+        } else {
+            fail(message.get(), notEqualHint(expected, actual));
+        }
+    }
+
+    private static String notEqualHint(Object expected, Object actual) {
+        if (expected instanceof CharSequence && actual instanceof CharSequence) {
+            String difference = HintRenderer.difference((CharSequence) expected, (CharSequence) actual);
+            if (difference != null) {
+                return difference;
+            }
+        }
+
+        if (isObjectStringEqualsButDifferentType(expected, actual)) {
             String actualClass = actual.getClass().getCanonicalName();
             String expectedClass = expected.getClass().getCanonicalName();
-            fail(message, actualInQuotes + " [" + actualClass + "] does not equal expected " + expectedInQuotes + " [" + expectedClass + "]");
+            return inQuotesIfNotNull(actual) + " [" + actualClass + "] does not equal expected " + inQuotesIfNotNull(expected) + " [" + expectedClass + "]";
         } else {
-            fail(message, actualInQuotes + " does not equal expected " + expectedInQuotes);
+            return inQuotesIfNotNull(actual) + " does not equal expected " + inQuotesIfNotNull(expected);
         }
     }
 
@@ -186,15 +312,12 @@ public class VisibleAssertions extends AnsiSupport {
      */
     public static void assertVisiblyEquals(String message, Object expected, Object actual) {
 
-        String expectedInQuotes = inQuotesIfNotNull(expected);
-        String actualInQuotes = inQuotesIfNotNull(actual);
-
         if (areBothNull(expected, actual)) {
             pass(message);
         } else if (isObjectEquals(String.valueOf(expected), String.valueOf(actual))) {
             pass(message);
         } else {
-            fail(message, actualInQuotes + " after toString() does not equal expected " + expectedInQuotes);
+            fail(message, inQuotesIfNotNull(actual) + " after toString() does not equal expected " + inQuotesIfNotNull(expected));
         }
     }
 
@@ -211,15 +334,216 @@ public class VisibleAssertions extends AnsiSupport {
      */
     public static void assertRoughlyEquals(String message, Double expected, Double actual, Double epsilon) {
 
-        String expectedInQuotes = inQuotesIfNotNull(expected);
-        String actualInQuotes = inQuotesIfNotNull(actual);
-
         if (areBothNull(expected, actual)) {
             pass(message);
-        } else if (Math.abs(actual - expected) < epsilon) {
+        } else if (expected == null || actual == null) {
+            fail(message, notEqualHint(expected, actual));
+        } else {
+            assertWithin(message, expected, actual, Tolerance.ABSOLUTE, epsilon);
+        }
+    }
+
+    /**
+     * Assert that an actual value is approximately equal to an expected value - determined by whether the difference
+     * between the two values is less than a provided epsilon value.
+     * <p>
+     * Unlike {@link #assertRoughlyEquals(String, Double, Double, Double)}, this does not box its arguments, and does not
+     * allocate unless the assertion fails.
+     * <p>
+     * If the assertion passes, a green tick will be shown. If the assertion fails, a red cross will be shown.
+     *
+     * @param message  message to display alongside the assertion outcome
+     * @param expected the expected value
+     * @param actual   the actual value
+     * @param epsilon  the allowable absolute difference between expected and actual values
+     */
+    public static void assertRoughlyEqualsAbsolute(String message, double expected, double actual, double epsilon) {
+        assertWithin(message, expected, actual, Tolerance.ABSOLUTE, epsilon);
+    }
+
+    /**
+     * Assert that an actual value is approximately equal to an expected value - determined by whether the difference
+     * between the two values is less than a provided epsilon value.
+     * <p>
+     * This does not box its arguments, and does not allocate unless the assertion fails.
+     * <p>
+     * If the assertion passes, a green tick will be shown. If the assertion fails, a red cross will be shown.
+     *
+     * @param message  message to display alongside the assertion outcome
+     * @param expected the expected value
+     * @param actual   the actual value
+     * @param epsilon  the allowable absolute difference between expected and actual values
+     */
+    public static void assertRoughlyEqualsAbsolute(String message, float expected, float actual, float epsilon) {
+        assertWithin(message, expected, actual, Tolerance.ABSOLUTE, epsilon);
+    }
+
+    /**
+     * Assert that an actual value is approximately equal to an expected value - determined by whether the difference
+     * between the two values, relative to the larger of their magnitudes, is no more than a given fraction.
+     * <p>
+     * For example, with a relative tolerance of 0.01, values within 1% of each other are considered equal.
+     * <p>
+     * If the assertion passes, a green tick will be shown. If the assertion fails, a red cross will be shown.
+     *
+     * @param message           message to display alongside the assertion outcome
+     * @param expected          the expected value
+     * @param actual            the actual value
+     * @param relativeTolerance the allowable difference, as a fraction of the larger magnitude of the two values
+     */
+    public static void assertRoughlyEqualsRelative(String message, double expected, double actual, double relativeTolerance) {
+        assertWithin(message, expected, actual, Tolerance.RELATIVE, relativeTolerance);
+    }
+
+    /**
+     * Assert that an actual value is approximately equal to an expected value - determined by whether the difference
+     * between the two values, relative to the larger of their magnitudes, is no more than a given fraction.
+     * <p>
+     * If the assertion passes, a green tick will be shown. If the assertion fails, a red cross will be shown.
+     *
+     * @param message           message to display alongside the assertion outcome
+     * @param expected          the expected value
+     * @param actual            the actual value
+     * @param relativeTolerance the allowable difference, as a fraction of the larger magnitude of the two values
+     */
+    public static void assertRoughlyEqualsRelative(String message, float expected, float actual, float relativeTolerance) {
+        assertWithin(message, expected, actual, Tolerance.RELATIVE, relativeTolerance);
+    }
+
+    /**
+     * Assert that an actual value is approximately equal to an expected value - determined by whether there are no
+     * more than a given number of representable doubles between them (units in the last place, or ulps).
+     * <p>
+     * Unlike an absolute epsilon, an ulp tolerance scales with the magnitude of the values, which suits comparing the
+     * results of floating point calculations.
+     * <p>
+     * If the assertion passes, a green tick will be shown. If the assertion fails, a red cross will be shown.
+     *
+     * @param message  message to display alongside the assertion outcome
+     * @param expected the expected value
+     * @param actual   the actual value
+     * @param maxUlps  the allowable distance between expected and actual values, in ulps
+     */
+    public static void assertRoughlyEqualsUlps(String message, double expected, double actual, long maxUlps) {
+        assertWithin(message, expected, actual, Tolerance.ULPS, maxUlps);
+    }
+
+    /**
+     * Assert that an actual value is approximately equal to an expected value - determined by whether there are no
+     * more than a given number of representable floats between them (units in the last place, or ulps).
+     * <p>
+     * If the assertion passes, a green tick will be shown. If the assertion fails, a red cross will be shown.
+     *
+     * @param message  message to display alongside the assertion outcome
+     * @param expected the expected value
+     * @param actual   the actual value
+     * @param maxUlps  the allowable distance between expected and actual values, in ulps
+     */
+    public static void assertRoughlyEqualsUlps(String message, float expected, float actual, int maxUlps) {
+        double deviation = Tolerance.ULPS.deviation(expected, actual);
+        if (Tolerance.ULPS.accepts(deviation, maxUlps)) {
+            pass(message);
+        } else {
+            fail(message, Tolerance.ULPS.describe(String.valueOf(expected), String.valueOf(actual), deviation, String.valueOf(maxUlps)));
+        }
+    }
+
+    /**
+     * Assert that each element of an actual array is approximately equal to the corresponding element of an expected
+     * array - determined by whether the difference between them is less than a provided epsilon value.
+     * <p>
+     * A single outcome is shown for the whole array. If it fails, the hint gives the number of elements which differ
+     * by too much, and the index and values of the element which differs the most.
+     *
+     * @param message  message to display alongside the assertion outcome
+     * @param expected the expected values
+     * @param actual   the actual values
+     * @param epsilon  the allowable absolute difference between expected and actual values
+     */
+    public static void assertRoughlyEqualsAbsolute(String message, double[] expected, double[] actual, double epsilon) {
+        assertWithin(message, expected, actual, Tolerance.ABSOLUTE, epsilon);
+    }
+
+    /**
+     * Assert that each element of an actual array is approximately equal to the corresponding element of an expected
+     * array, using a relative tolerance as in {@link #assertRoughlyEqualsRelative(String, double, double, double)}.
+     * <p>
+     * A single outcome is shown for the whole array. If it fails, the hint gives the number of elements which differ
+     * by too much, and the index and values of the element which differs the most.
+     *
+     * @param message           message to display alongside the assertion outcome
+     * @param expected          the expected values
+     * @param actual            the actual values
+     * @param relativeTolerance the allowable difference, as a fraction of the larger magnitude of the two values
+     */
+    public static void assertRoughlyEqualsRelative(String message, double[] expected, double[] actual, double relativeTolerance) {
+        assertWithin(message, expected, actual, Tolerance.RELATIVE, relativeTolerance);
+    }
+
+    /**
+     * Assert that each element of an actual array is approximately equal to the corresponding element of an expected
+     * array, using an ulp tolerance as in {@link #assertRoughlyEqualsUlps(String, double, double, long)}.
+     * <p>
+     * A single outcome is shown for the whole array. If it fails, the hint gives the number of elements which differ
+     * by too much, and the index and values of the element which differs the most.
+     *
+     * @param message  message to display alongside the assertion outcome
+     * @param expected the expected values
+     * @param actual   the actual values
+     * @param maxUlps  the allowable distance between expected and actual values, in ulps
+     */
+    public static void assertRoughlyEqualsUlps(String message, double[] expected, double[] actual, long maxUlps) {
+        assertWithin(message, expected, actual, Tolerance.ULPS, maxUlps);
+    }
+
+    private static void assertWithin(String message, double expected, double actual, Tolerance tolerance, double limit) {
+        double deviation = tolerance.deviation(expected, actual);
+        if (tolerance.accepts(deviation, limit)) {
+            pass(message);
+        } else {
+            fail(message, tolerance.describe(String.valueOf(expected), String.valueOf(actual), deviation, tolerance.formatLimit(limit)));
+        }
+    }
+
+    private static void assertWithin(String message, float expected, float actual, Tolerance tolerance, float limit) {
+        double deviation = tolerance.deviation(expected, actual);
+        if (tolerance.accepts(deviation, limit)) {
             pass(message);
         } else {
-            fail(message, actualInQuotes + " differs from expected " + expectedInQuotes + " by more than allowed amount (" + epsilon + ")");
+            fail(message, tolerance.describe(String.valueOf(expected), String.valueOf(actual), deviation, String.valueOf(limit)));
+        }
+    }
+
+    private static void assertWithin(String message, double[] expected, double[] actual, Tolerance tolerance, double limit) {
+        if (expected == null || actual == null) {
+            assertBothNull(message, expected, actual);
+            return;
+        }
+        if (expected.length != actual.length) {
+            fail(message, "actual has length " + actual.length + " but expected length " + expected.length);
+            return;
+        }
+
+        int failures = 0;
+        int worstIndex = -1;
+        double worstDeviation = 0;
+        for (int i = 0; i < expected.length; i++) {
+            double deviation = tolerance.deviation(expected[i], actual[i]);
+            if (!tolerance.accepts(deviation, limit)) {
+                failures++;
+                // Double.compare orders NaN above all other values, so NaN deviations are the worst of all
+                if (worstIndex < 0 || Double.compare(deviation, worstDeviation) > 0) {
+                    worstIndex = i;
+                    worstDeviation = deviation;
+                }
+            }
+        }
+
+        if (failures == 0) {
+            pass(message);
+        } else {
+            fail(message, failures + " of " + expected.length + " elements differ by too much; the worst is at index " + worstIndex + ": "
+                    + tolerance.describe(String.valueOf(expected[worstIndex]), String.valueOf(actual[worstIndex]), worstDeviation, tolerance.formatLimit(limit)));
         }
     }
 
@@ -265,7 +589,7 @@ public class VisibleAssertions extends AnsiSupport {
     }
 
     private static String inQuotesIfNotNull(Object value) {
-        return value == null ? "null" : "'" + String.valueOf(value) + "'";
+        return HintRenderer.quoted(value);
     }
 
     /**
@@ -300,6 +624,38 @@ public class VisibleAssertions extends AnsiSupport {
         }
     }
 
+    /**
+     * Assert that a value is null, building the message only if it is needed.
+     * <p>
+     * If the assertion passes, a green tick will be shown. If the assertion fails, a red cross will be shown.
+     *
+     * @param message supplier of the message to display alongside the assertion outcome
+     * @param o       value to test
+     */
+    public static void assertNullLazily(MessageSupplier message, Object o) {
+        if (o == null) {
+            pass(message);
+        } else {
+            fail(message.get(), "'" + o + "' is not null");
+        }
+    }
+
+    /**
+     * Assert that a value is not null, building the message only if it is needed.
+     * <p>
+     * If the assertion passes, a green tick will be shown. If the assertion fails, a red cross will be shown.
+     *
+     * @param message supplier of the message to display alongside the assertion outcome
+     * @param o       value to test
+     */
+    public static void assertNotNullLazily(MessageSupplier message, Object o) {
+        if (o != null) {
+            pass(message);
+        } else {
+            fail(message.get(), null);
+        }
+    }
+
     /**
      * Assert that an actual value is the same object as an expected value.
      * <p>
@@ -313,13 +669,209 @@ public class VisibleAssertions extends AnsiSupport {
      */
     public static void assertSame(String message, Object expected, Object actual) {
 
-        String expectedInQuotes = inQuotesIfNotNull(expected);
-        String actualInQuotes = inQuotesIfNotNull(actual);
-
         if (expected == actual) {
             pass(message);
         } else {
-            fail(message, actualInQuotes + " is not the same (!=) as expected " + expectedInQuotes);
+            fail(message, inQuotesIfNotNull(actual) + " is not the same (!=) as expected " + inQuotesIfNotNull(expected));
+        }
+    }
+
+    /**
+     * Assert that two arrays are equal, element by element.
+     * <p>
+     * Elements are compared without boxing.
+     * <p>
+     * Comparison stops at the first difference, which is reported by index along with a few elements either side.
+     * <p>
+     * If the assertion passes, a green tick will be shown. If the assertion fails, a red cross will be shown.
+     *
+     * @param message  message to display alongside the assertion outcome
+     * @param expected the expected array
+     * @param actual   the actual array
+     */
+    public static void assertArrayEquals(String message, int[] expected, int[] actual) {
+        if (expected == null || actual == null) {
+            assertBothNull(message, expected, actual);
+            return;
+        }
+
+        String difference = SequenceDiff.diff(expected, actual);
+        if (difference == null) {
+            pass(message);
+        } else {
+            fail(message, difference);
+        }
+    }
+
+    /**
+     * Assert that two arrays are equal, element by element.
+     * <p>
+     * Elements are compared without boxing.
+     * <p>
+     * Comparison stops at the first difference, which is reported by index along with a few elements either side.
+     * <p>
+     * If the assertion passes, a green tick will be shown. If the assertion fails, a red cross will be shown.
+     *
+     * @param message  message to display alongside the assertion outcome
+     * @param expected the expected array
+     * @param actual   the actual array
+     */
+    public static void assertArrayEquals(String message, long[] expected, long[] actual) {
+        if (expected == null || actual == null) {
+            assertBothNull(message, expected, actual);
+            return;
+        }
+
+        String difference = SequenceDiff.diff(expected, actual);
+        if (difference == null) {
+            pass(message);
+        } else {
+            fail(message, difference);
+        }
+    }
+
+    /**
+     * Assert that two arrays are equal, element by element.
+     * <p>
+     * Elements are compared without boxing.
+     * <p>
+     * Elements are compared exactly, as by {@link java.util.Arrays#equals(double[], double[])}.
+     * <p>
+     * Comparison stops at the first difference, which is reported by index along with a few elements either side.
+     * <p>
+     * If the assertion passes, a green tick will be shown. If the assertion fails, a red cross will be shown.
+     *
+     * @param message  message to display alongside the assertion outcome
+     * @param expected the expected array
+     * @param actual   the actual array
+     */
+    public static void assertArrayEquals(String message, double[] expected, double[] actual) {
+        if (expected == null || actual == null) {
+            assertBothNull(message, expected, actual);
+            return;
+        }
+
+        String difference = SequenceDiff.diff(expected, actual);
+        if (difference == null) {
+            pass(message);
+        } else {
+            fail(message, difference);
+        }
+    }
+
+    /**
+     * Assert that two arrays are equal, element by element.
+     * <p>
+     * Elements are compared without boxing.
+     * <p>
+     * Comparison stops at the first difference, which is reported by index along with a few elements either side.
+     * <p>
+     * If the assertion passes, a green tick will be shown. If the assertion fails, a red cross will be shown.
+     *
+     * @param message  message to display alongside the assertion outcome
+     * @param expected the expected array
+     * @param actual   the actual array
+     */
+    public static void assertArrayEquals(String message, byte[] expected, byte[] actual) {
+        if (expected == null || actual == null) {
+            assertBothNull(message, expected, actual);
+            return;
+        }
+
+        String difference = SequenceDiff.diff(expected, actual);
+        if (difference == null) {
+            pass(message);
+        } else {
+            fail(message, difference);
+        }
+    }
+
+    /**
+     * Assert that two arrays are equal, element by element.
+     * <p>
+     * Elements are compared with their equals() method; nested arrays are not compared deeply.
+     * <p>
+     * Comparison stops at the first difference, which is reported by index along with a few elements either side.
+     * <p>
+     * If the assertion passes, a green tick will be shown. If the assertion fails, a red cross will be shown.
+     *
+     * @param message  message to display alongside the assertion outcome
+     * @param expected the expected array
+     * @param actual   the actual array
+     */
+    public static void assertArrayEquals(String message, Object[] expected, Object[] actual) {
+        if (expected == null || actual == null) {
+            assertBothNull(message, expected, actual);
+            return;
+        }
+
+        String difference = SequenceDiff.diff(expected, actual);
+        if (difference == null) {
+            pass(message);
+        } else {
+            fail(message, difference);
+        }
+    }
+
+    /**
+     * Assert that two iterables contain equal elements in the same order.
+     * <p>
+     * Both iterables are streamed through together and comparison stops at the first difference, which is reported by
+     * index along with a few elements either side, so arbitrarily long sequences can be compared without copying or
+     * rendering them in full.
+     * <p>
+     * If the assertion passes, a green tick will be shown. If the assertion fails, a red cross will be shown.
+     *
+     * @param message  message to display alongside the assertion outcome
+     * @param expected the expected elements
+     * @param actual   the actual elements
+     */
+    public static void assertIterableEquals(String message, Iterable<?> expected, Iterable<?> actual) {
+        if (expected == null || actual == null) {
+            assertBothNull(message, expected, actual);
+            return;
+        }
+
+        String difference = SequenceDiff.diff(expected, actual);
+        if (difference == null) {
+            pass(message);
+        } else {
+            fail(message, difference);
+        }
+    }
+
+    /**
+     * Assert that an iterable contains all of a number of expected elements, in any order.
+     * <p>
+     * The check stops at the first expected element which is missing, and only that element is reported.
+     * <p>
+     * If the assertion passes, a green tick will be shown. If the assertion fails, a red cross will be shown.
+     *
+     * @param message  message to display alongside the assertion outcome
+     * @param expected the elements which must all be present
+     * @param actual   the actual elements
+     */
+    public static void assertContainsAll(String message, Iterable<?> expected, Iterable<?> actual) {
+        if (expected == null || actual == null) {
+            assertBothNull(message, expected, actual);
+            return;
+        }
+
+        String missing = SequenceDiff.firstMissing(expected, actual);
+        if (missing == null) {
+            pass(message);
+        } else {
+            fail(message, missing);
+        }
+    }
+
+    private static void assertBothNull(String message, Object expected, Object actual) {
+        if (expected == null && actual == null) {
+            pass(message);
+        } else if (actual == null) {
+            fail(message, "actual is null");
+        } else {
+            fail(message, "expected null");
         }
     }
 
@@ -343,18 +895,130 @@ public class VisibleAssertions extends AnsiSupport {
      * @param <T>             class of the actual value
      */
     public static <T> void assertThat(String whatTheObjectIs, T actual, Matcher<? super T> matcher) {
-        Description description = new StringDescription();
-        if (matcher.matches(actual)) {
-            description.appendText(whatTheObjectIs);
-            description.appendText(" ");
-            matcher.describeTo(description);
-            pass(description.toString());
+        long start = System.nanoTime();
+        boolean matches = matcher.matches(actual);
+        long duration = System.nanoTime() - start;
+        AssertionMetrics.recordMatcher(duration);
+
+        // Descriptions are only built if they will be shown or delivered to a listener
+        if (matches) {
+            if (arePassesSilenced() && !Events.isActive()) {
+                Events.count(AssertionEvent.Type.PASS);
+                return;
+            }
+            pass(whatTheObjectIs + " " + DescriptionCache.describe(matcher), duration);
         } else {
+            if (Config.get().failuresSilenced && !Events.isActive()) {
+                Events.count(AssertionEvent.Type.FAIL);
+                return;
+            }
+            Description description = new StringDescription();
             description.appendText("asserted that it ")
                     .appendDescriptionOf(matcher)
                     .appendText(" but ");
             matcher.describeMismatch(actual, description);
-            fail("assertion on " + whatTheObjectIs + " failed", description.toString());
+            fail("assertion on " + whatTheObjectIs + " failed", HintRenderer.abbreviate(description.toString()), duration);
+        }
+    }
+
+    /**
+     * Assert that a condition becomes true within a timeout, polling it with the {@link Polling#DEFAULT default}
+     * backoff.
+     * <p>
+     * The condition is evaluated on a shared scheduler thread while the calling thread waits. If the condition throws
+     * an exception, the assertion fails immediately.
+     * <p>
+     * If the assertion passes, a green tick will be shown. If the assertion fails, a red cross will be shown. Either
+     * way, the number of attempts and the time taken are shown.
+     *
+     * @param message   message to display alongside the assertion outcome
+     * @param timeout   how long to wait for the condition to become true
+     * @param unit      unit of the timeout
+     * @param condition the condition to poll
+     */
+    public static void assertEventually(String message, long timeout, TimeUnit unit, Callable<Boolean> condition) {
+        assertEventually(message, timeout, unit, Polling.DEFAULT, condition);
+    }
+
+    /**
+     * Assert that a condition becomes true within a timeout, as {@link #assertEventually(String, long, TimeUnit, Callable)},
+     * with custom polling intervals and retryable exceptions.
+     *
+     * @param message   message to display alongside the assertion outcome
+     * @param timeout   how long to wait for the condition to become true
+     * @param unit      unit of the timeout
+     * @param polling   polling intervals, and exceptions to retry
+     * @param condition the condition to poll
+     */
+    public static void assertEventually(String message, long timeout, TimeUnit unit, Polling polling, Callable<Boolean> condition) {
+        Poller<Boolean> poller = Poller.poll(condition, CoreMatchers.equalTo(Boolean.TRUE), polling, unit.toNanos(timeout));
+        if (poller.isMatched()) {
+            pass(message + " (" + poller.describeAttempts() + ")", poller.getElapsedNanos());
+        } else {
+            fail(message, eventuallyFailureHint(poller, "the condition was still " + poller.getLastValue()), poller.getElapsedNanos());
+        }
+    }
+
+    /**
+     * Assert that a value, obtained repeatedly, comes to match a Hamcrest matcher within a timeout, polling with the
+     * {@link Polling#DEFAULT default} backoff.
+     * <p>
+     * The value is obtained on a shared scheduler thread while the calling thread waits. If obtaining it throws an
+     * exception, the assertion fails immediately.
+     *
+     * @param whatTheObjectIs what is the thing being tested, in a logical sense
+     * @param timeout         how long to wait for the value to match
+     * @param unit            unit of the timeout
+     * @param actual          a Callable which returns the current value
+     * @param matcher         a matcher to check the value against
+     * @param <T>             class of the value
+     */
+    public static <T> void assertEventually(String whatTheObjectIs, long timeout, TimeUnit unit, Callable<T> actual, Matcher<? super T> matcher) {
+        assertEventually(whatTheObjectIs, timeout, unit, Polling.DEFAULT, actual, matcher);
+    }
+
+    /**
+     * Assert that a value, obtained repeatedly, comes to match a Hamcrest matcher within a timeout, as
+     * {@link #assertEventually(String, long, TimeUnit, Callable, Matcher)}, with custom polling intervals and retryable
+     * exceptions.
+     *
+     * @param whatTheObjectIs what is the thing being tested, in a logical sense
+     * @param timeout         how long to wait for the value to match
+     * @param unit            unit of the timeout
+     * @param polling         polling intervals, and exceptions to retry
+     * @param actual          a Callable which returns the current value
+     * @param matcher         a matcher to check the value against
+     * @param <T>             class of the value
+     */
+    public static <T> void assertEventually(String whatTheObjectIs, long timeout, TimeUnit unit, Polling polling, Callable<T> actual, Matcher<? super T> matcher) {
+        Poller<T> poller = Poller.poll(actual, matcher, polling, unit.toNanos(timeout));
+        Description description = new StringDescription();
+        if (poller.isMatched()) {
+            description.appendText(whatTheObjectIs)
+                    .appendText(" ")
+                    .appendDescriptionOf(matcher)
+                    .appendText(" (" + poller.describeAttempts() + ")");
+            pass(description.toString(), poller.getElapsedNanos());
+        } else {
+            description.appendText("asserted that it eventually ")
+                    .appendDescriptionOf(matcher)
+                    .appendText(" but ");
+            matcher.describeMismatch(poller.getLastValue(), description);
+            fail("assertion on " + whatTheObjectIs + " failed",
+                    HintRenderer.abbreviate(eventuallyFailureHint(poller, description.toString())), poller.getElapsedNanos());
+        }
+    }
+
+    private static String eventuallyFailureHint(Poller<?> poller, String lastOutcome) {
+        Throwable exception = poller.getLastException();
+        if (poller.isFailedFast()) {
+            return exception.getClass().getSimpleName() + " was thrown (" + poller.describeAttempts() + "): " + exception.getMessage();
+        } else if (!poller.isFinished()) {
+            return "the timeout elapsed while the condition was being evaluated (" + poller.describeAttempts() + ")";
+        } else if (exception != null) {
+            return "the last attempt threw " + exception.getClass().getSimpleName() + " (" + poller.describeAttempts() + "): " + exception.getMessage();
+        } else {
+            return lastOutcome + " (" + poller.describeAttempts() + ")";
         }
     }
 
@@ -372,19 +1036,10 @@ public class VisibleAssertions extends AnsiSupport {
      * @param exceptionClass the expected exception class
      * @param callable       a Callable to invoke
      * @param <T>            return type of the callable
+     * @see #assertThrows(String, Class, ThrowsMatch, Callable) to obtain the exception for further checks
      */
     public static <T> void assertThrows(String message, Class<? extends Exception> exceptionClass, Callable<T> callable) {
-        T result;
-        try {
-            result = callable.call();
-            fail(message, "No exception was thrown (expected " + exceptionClass.getSimpleName() + " but '" + result + "' was returned instead)");
-        } catch (Exception e) {
-            if (!e.getClass().equals(exceptionClass)) {
-                fail(message, e.getClass().getSimpleName() + " was thrown instead of " + exceptionClass.getSimpleName());
-            }
-        }
-
-        pass(message);
+        assertThrows(message, exceptionClass, ThrowsMatch.EXACT, callable);
     }
 
     /**
@@ -400,18 +1055,97 @@ public class VisibleAssertions extends AnsiSupport {
      * @param message        message to display alongside the assertion outcome
      * @param exceptionClass the expected exception class
      * @param runnable       a Runnable to invoke
+     * @see #assertThrows(String, Class, ThrowsMatch, Runnable) to obtain the exception for further checks
      */
     public static void assertThrows(String message, Class<? extends Exception> exceptionClass, Runnable runnable) {
+        assertThrows(message, exceptionClass, ThrowsMatch.EXACT, runnable);
+    }
+
+    /**
+     * Assert that a given callable throws an exception of a particular class, or (depending on the match mode) a
+     * subclass of it, or an exception caused by it.
+     * <p>
+     * The time taken by the callable is recorded with the outcome, whether it passes or fails.
+     * <p>
+     * If the assertion passes, a green tick will be shown. If the assertion fails, a red cross will be shown.
+     *
+     * @param message        message to display alongside the assertion outcome
+     * @param exceptionClass the expected exception class
+     * @param match          how to match the thrown exception against the expected class
+     * @param callable       a Callable to invoke
+     * @param <E>            the expected exception class
+     * @return the matching exception (with {@link ThrowsMatch#CAUSE}, the matching cause), for further checks, or
+     * null if the assertion failed without throwing (e.g. because failures are silenced)
+     */
+    public static <E extends Throwable> E assertThrows(String message, Class<E> exceptionClass, ThrowsMatch match, Callable<?> callable) {
+        return invokeExpectingThrow(message, exceptionClass, match, callable, true);
+    }
+
+    /**
+     * Assert that a given runnable throws an exception of a particular class, or (depending on the match mode) a
+     * subclass of it, or an exception caused by it.
+     * <p>
+     * The time taken by the runnable is recorded with the outcome, whether it passes or fails.
+     * <p>
+     * If the assertion passes, a green tick will be shown. If the assertion fails, a red cross will be shown.
+     *
+     * @param message        message to display alongside the assertion outcome
+     * @param exceptionClass the expected exception class
+     * @param match          how to match the thrown exception against the expected class
+     * @param runnable       a Runnable to invoke
+     * @param <E>            the expected exception class
+     * @return the matching exception (with {@link ThrowsMatch#CAUSE}, the matching cause), for further checks, or
+     * null if the assertion failed without throwing (e.g. because failures are silenced)
+     */
+    public static <E extends Throwable> E assertThrows(String message, Class<E> exceptionClass, ThrowsMatch match, final Runnable runnable) {
+        return invokeExpectingThrow(message, exceptionClass, match, new Callable<Object>() {
+            @Override
+            public Object call() {
+                runnable.run();
+                return null;
+            }
+        }, false);
+    }
+
+    /*
+     * Single implementation of assertThrows. Errors which are not expected are rethrown rather than reported, so that
+     * e.g. a failed assertion inside the callable is not disguised as a wrong exception.
+     */
+    private static <E extends Throwable> E invokeExpectingThrow(String message, Class<E> exceptionClass, ThrowsMatch match,
+                                                                Callable<?> callable, boolean hasResult) {
+        Object result;
+        Throwable thrown = null;
+        long start = System.nanoTime();
         try {
-            runnable.run();
-            fail(message, "No exception was thrown (expected " + exceptionClass.getSimpleName() + ")");
-        } catch (Exception e) {
-            if (!e.getClass().equals(exceptionClass)) {
-                fail(message, e.getClass().getSimpleName() + " was thrown instead of " + exceptionClass.getSimpleName());
+            result = callable.call();
+        } catch (Throwable e) {
+            result = null;
+            thrown = e;
+        }
+        long duration = System.nanoTime() - start;
+        AssertionMetrics.recordCallable(duration);
+
+        if (thrown == null) {
+            if (hasResult) {
+                fail(message, "No exception was thrown (expected " + match.describe(exceptionClass) + " but "
+                        + (result == null ? "'null'" : HintRenderer.quoted(result)) + " was returned instead)", duration);
+            } else {
+                fail(message, "No exception was thrown (expected " + match.describe(exceptionClass) + ")", duration);
             }
+            return null;
         }
 
-        pass(message);
+        Throwable matched = match.find(thrown, exceptionClass);
+        if (matched == null) {
+            if (thrown instanceof Error) {
+                throw (Error) thrown;
+            }
+            fail(message, thrown.getClass().getSimpleName() + " was thrown instead of " + match.describe(exceptionClass), duration);
+            return null;
+        }
+
+        pass(message, duration);
+        return exceptionClass.cast(matched);
     }
 
     /**
@@ -420,25 +1154,136 @@ public class VisibleAssertions extends AnsiSupport {
      * @param message message to display alongside a green tick
      */
     public static void pass(String message) {
-        if (Boolean.getBoolean("visibleassertions.silence") || Boolean.getBoolean("visibleassertions.silence.passes")) {
+        pass(message, AssertionEvent.UNTIMED);
+    }
+
+    private static void pass(String message, long durationNanos) {
+        Events.fire(AssertionEvent.Type.PASS, message, null, durationNanos);
+        if (arePassesSilenced()) {
             return;
         }
-        System.out.println("        " + green(TICK_MARK + " " + message));
+
+        PASS_LINE.write(String.valueOf(message));
+    }
+
+    private static void pass(MessageSupplier message) {
+        if (arePassesSilenced() && !Events.isActive()) {
+            Events.count(AssertionEvent.Type.PASS);
+            return;
+        }
+        pass(message.get());
+    }
+
+    private static boolean arePassesSilenced() {
+        return Config.get().passesSilenced;
     }
 
     public static void fail(String message, String hint) {
-        if (Boolean.getBoolean("visibleassertions.silence") || Boolean.getBoolean("visibleassertions.silence.failures")) {
+        fail(message, hint, AssertionEvent.UNTIMED);
+    }
+
+    private static void fail(String message, String hint, long durationNanos) {
+        Events.fire(AssertionEvent.Type.FAIL, message, hint, durationNanos);
+        if (Config.get().failuresSilenced) {
+            return;
+        }
+
+        SoftAssertions scope = SoftAssertions.current();
+        if (scope != null) {
+            if (scope.record(message, hint)) {
+                writeFailure(message, hint);
+            }
             return;
         }
 
-        System.out.println("        " + red(CROSS_MARK + " " + message));
+        writeFailure(message, hint);
+        Output.flush();
 
         if (hint == null) {
             throw new AssertionError(message);
         } else {
-            System.out.println("            " + yellow(hint));
             throw new AssertionError(message + ": " + hint);
         }
+    }
+
+    private static void writeFailure(String message, String hint) {
+        FAIL_LINE.write(String.valueOf(message));
+        if (hint != null) {
+            HINT_LINE.write(hint);
+        }
+    }
+
+    /*
+     * Report the failures collected by an outermost soft assertion scope when it is closed
+     */
+    static void failSoftScope(String summary, String details) {
+        FAIL_LINE.write(summary);
+        Output.flush();
+        throw new AssertionError(summary + ":" + details);
+    }
+
+    /*
+     * Show the elapsed time and counts of a context scope when it is closed. This is output only, not an event, so
+     * listeners and metrics only see what the caller asserted.
+     */
+    static void closeContextScope(ContextScope scope) {
+        if (Config.get().silenced) {
+            return;
+        }
+
+        SCOPE_END_LINE.write(scope.summary());
+    }
+
+    /**
+     * Start a named context scope for the current thread. The context is shown as a dividing line, as
+     * {@link #context(CharSequence)}; until the scope is closed, output from the current thread is indented, and
+     * passes and failures are counted. Closing the scope shows how long it was open and how many assertions passed
+     * and failed within it.
+     * <p>
+     * Usage:
+     * <pre>
+     *     try (ContextScope scope = VisibleAssertions.contextScope("Loading the test data")) {
+     *         assertEquals("all rows are loaded", 1000, rows.size());
+     *     }
+     * </pre>
+     * Scopes may be nested, to indent output further and time phases within phases.
+     *
+     * @param name contextual message to show
+     * @return the scope, which must be closed
+     */
+    public static ContextScope contextScope(CharSequence name) {
+        context(name);
+        return ContextScope.open(name);
+    }
+
+    /**
+     * Start a soft assertion scope for the current thread. Until the scope is closed, failed assertions are shown and
+     * recorded rather than thrown; closing the scope throws a single {@link AssertionError} summarising all of them.
+     * <p>
+     * Usage:
+     * <pre>
+     *     try (SoftAssertions softly = VisibleAssertions.softly()) {
+     *         for (Row row : rows) {
+     *             assertEquals("the row total is correct", row.expectedTotal(), row.total());
+     *         }
+     *     }
+     * </pre>
+     * Repeated failures (with the same message and hint) are shown once and counted, and at most
+     * {@link SoftAssertions#DEFAULT_MAX_RENDERED} distinct failures are shown.
+     *
+     * @return the scope, which must be closed
+     */
+    public static SoftAssertions softly() {
+        return softly(SoftAssertions.DEFAULT_MAX_RENDERED);
+    }
 
+    /**
+     * Start a soft assertion scope for the current thread, as {@link #softly()}.
+     *
+     * @param maxRendered the maximum number of distinct failures to show and include in the summary
+     * @return the scope, which must be closed
+     */
+    public static SoftAssertions softly(int maxRendered) {
+        return SoftAssertions.open(maxRendered);
     }
 }
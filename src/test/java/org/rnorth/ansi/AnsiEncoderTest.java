@@ -0,0 +1,147 @@
+package org.rnorth.ansi;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assume.assumeTrue;
+import static org.rnorth.visibleassertions.VisibleAssertions.assertArrayEquals;
+import static org.rnorth.visibleassertions.VisibleAssertions.assertEquals;
+
+public class AnsiEncoderTest {
+
+    private static final String[] SAMPLES = {
+            "",
+            "plain ascii",
+            "café £100",
+            "✔ tick and ✘ cross",
+            "emoji 😀 in the middle",
+            "unpaired \ud83d high surrogate",
+            "unpaired \ude00 low surrogate",
+            "trailing high surrogate \ud83d"
+    };
+
+    @Before
+    public void setUp() {
+        System.setProperty("visibleassertions.ansi.enabled", "true");
+        AnsiLite.resetCapabilities();
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty("visibleassertions.ansi.enabled");
+        AnsiLite.resetCapabilities();
+    }
+
+    @Test
+    public void utf8TextMatchesTheJdkEncoder() {
+        AnsiEncoder encoder = new AnsiEncoder();
+        for (String sample : SAMPLES) {
+            encoder.clear().append(sample);
+            assertArrayEquals("'" + sample + "' is encoded as the JDK would",
+                    sample.getBytes(StandardCharsets.UTF_8), bytesOf(encoder));
+        }
+    }
+
+    @Test
+    public void otherCharsetsMatchTheJdkEncoder() {
+        Charset charset = StandardCharsets.ISO_8859_1;
+        AnsiEncoder encoder = new AnsiEncoder(charset);
+        for (String sample : SAMPLES) {
+            encoder.clear().append(new StringBuilder(sample));
+            assertArrayEquals("'" + sample + "' is encoded as the JDK would",
+                    sample.getBytes(charset), bytesOf(encoder));
+        }
+    }
+
+    @Test
+    public void stylesUsePreEncodedEscapeSequences() {
+        Style style = Style.WHITE.and(Style.BRIGHT);
+        AnsiEncoder encoder = new AnsiEncoder();
+        encoder.append(style, "Hello").append(" ").append(Style.NONE, "world");
+
+        assertEquals("styled text is wrapped in a single escape sequence and reset",
+                style.apply("Hello") + " world", encoder.toString());
+    }
+
+    @Test
+    public void stylesAreOmittedWhenAnsiIsDisabled() {
+        System.setProperty("visibleassertions.ansi.enabled", "false");
+        AnsiLite.resetCapabilities();
+
+        AnsiEncoder encoder = new AnsiEncoder();
+        encoder.append(Style.RED, "Hello");
+
+        assertEquals("no escape sequences are written", "Hello", encoder.toString());
+    }
+
+    @Test
+    public void preEncodedBytesCanBeRepeated() {
+        AnsiEncoder encoder = new AnsiEncoder();
+        byte[] mark = encoder.encode("┈");
+        encoder.append(mark, 3).append(mark, 0).append(mark, -1);
+
+        assertEquals("the mark is repeated", "┈┈┈", encoder.toString());
+    }
+
+    @Test
+    public void bufferGrowsToFitLongText() throws IOException {
+        char[] chars = new char[5000];
+        Arrays.fill(chars, 'é');
+        String text = new String(chars);
+
+        AnsiEncoder encoder = new AnsiEncoder();
+        encoder.append(text).append(text);
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        encoder.writeTo(stream);
+        assertArrayEquals("all of the text is written to a stream",
+                (text + text).getBytes(StandardCharsets.UTF_8), stream.toByteArray());
+
+        ByteBuffer buffer = ByteBuffer.allocate(encoder.length());
+        encoder.writeTo(buffer);
+        assertEquals("all of the text is written to a buffer", encoder.length(), buffer.position());
+    }
+
+    @Test
+    public void appendingDoesNotAllocate() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+        long threadId = Thread.currentThread().getId();
+        String text = "a message which is appended on every iteration, café";
+        int iterations = 100000;
+
+        for (Charset charset : new Charset[]{StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1}) {
+            AnsiEncoder encoder = new AnsiEncoder(charset);
+            for (int i = 0; i < iterations; i++) {
+                encoder.clear().append(Style.GREEN, text);
+            }
+
+            long before = allocationBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < iterations; i++) {
+                encoder.clear().append(Style.GREEN, text);
+            }
+            long after = allocationBean.getThreadAllocatedBytes(threadId);
+
+            double bytesPerCall = (after - before) / (double) iterations;
+            assert bytesPerCall < 1.0 : charset + " encoding allocated " + bytesPerCall + " bytes per call";
+        }
+    }
+
+    private static byte[] bytesOf(AnsiEncoder encoder) {
+        return Arrays.copyOf(encoder.array(), encoder.length());
+    }
+}
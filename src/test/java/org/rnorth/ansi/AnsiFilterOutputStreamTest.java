@@ -0,0 +1,106 @@
+package org.rnorth.ansi;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.rnorth.visibleassertions.VisibleAssertions.assertEquals;
+
+public class AnsiFilterOutputStreamTest {
+
+    private static final String COLOURED = "        " + Style.GREEN.escape() + "✔ it passed" + AnsiLite.RESET + "\n"
+            + "        " + Style.RED.escape() + "✘ it failed" + AnsiLite.RESET + "\n"
+            + Style.WHITE.and(Style.BRIGHT).escape() + "info" + AnsiLite.RESET + "\n";
+
+    private static final String PLAIN = "        ✔ it passed\n        ✘ it failed\ninfo\n";
+
+    @Test
+    public void sgrSequencesAreRemoved() throws IOException {
+        assertEquals("all colour is removed", PLAIN, strip(COLOURED, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void sequencesSplitAcrossWritesAreRemoved() throws IOException {
+        for (int chunk = 1; chunk <= 8; chunk++) {
+            assertEquals("all colour is removed when written in chunks of " + chunk,
+                    PLAIN, strip(COLOURED, chunk));
+        }
+    }
+
+    @Test
+    public void singleByteWritesAreFiltered() throws IOException {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        OutputStream filter = new AnsiFilterOutputStream(target);
+        for (byte b : COLOURED.getBytes(StandardCharsets.UTF_8)) {
+            filter.write(b);
+        }
+        filter.close();
+
+        assertEquals("all colour is removed", PLAIN, new String(target.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void otherEscapeSequencesArePassedThrough() throws IOException {
+        String text = "a\u001B[2Kb\u001Bc\u001B\u001B[31md\u001B[";
+        assertEquals("only SGR sequences are removed; a partial sequence is written on close",
+                "a\u001B[2Kb\u001Bc\u001Bd\u001B[", strip(text, 3));
+    }
+
+    @Test
+    public void overlongSequencesArePassedThrough() throws IOException {
+        StringBuilder sb = new StringBuilder("\u001B[");
+        for (int i = 0; i < 100; i++) {
+            sb.append("1;");
+        }
+        String text = sb.append("m text").toString();
+        assertEquals("sequences too long to buffer are left alone", text, strip(text, 7));
+    }
+
+    @Test
+    public void stylesCanBeRewritten() throws IOException {
+        Map<Style, Style> replacements = new HashMap<Style, Style>();
+        replacements.put(Style.GREEN, Style.BLUE.and(Style.BRIGHT));
+        replacements.put(Style.RED, Style.NONE);
+
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        OutputStream filter = new AnsiFilterOutputStream(target, replacements);
+        byte[] bytes = COLOURED.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < bytes.length; i += 5) {
+            filter.write(bytes, i, Math.min(5, bytes.length - i));
+        }
+        filter.close();
+
+        String expected = "        " + Style.BLUE.and(Style.BRIGHT).escape() + "✔ it passed" + AnsiLite.RESET + "\n"
+                + "        ✘ it failed" + AnsiLite.RESET + "\n"
+                + Style.WHITE.and(Style.BRIGHT).escape() + "info" + AnsiLite.RESET + "\n";
+        assertEquals("green is replaced, red is removed and other sequences are kept",
+                expected, new String(target.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void emptyReplacementsLeaveOutputUnchanged() throws IOException {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        OutputStream filter = new AnsiFilterOutputStream(target, Collections.<Style, Style>emptyMap());
+        filter.write(COLOURED.getBytes(StandardCharsets.UTF_8));
+        filter.close();
+
+        assertEquals("nothing is changed", COLOURED, new String(target.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static String strip(String text, int chunk) throws IOException {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        OutputStream filter = new AnsiFilterOutputStream(target);
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < bytes.length; i += chunk) {
+            filter.write(bytes, i, Math.min(chunk, bytes.length - i));
+        }
+        filter.close();
+        return new String(target.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
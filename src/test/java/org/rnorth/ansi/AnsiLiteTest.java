@@ -14,6 +14,7 @@ public class AnsiLiteTest {
     @Before
     public void setUp() throws Exception {
         System.setProperty("jansi.force", "true");
+        resetCapabilities();
     }
 
     @Test
@@ -40,9 +41,29 @@ public class AnsiLiteTest {
                 text);
     }
 
+    @Test
+    public void capabilityIsCachedUntilReset() {
+        try {
+            System.setProperty("visibleassertions.ansi.enabled", "false");
+            resetCapabilities();
+            assertEquals("forcing ANSI off takes effect after a reset", "Hello world", red("Hello world").toString());
+
+            System.setProperty("visibleassertions.ansi.enabled", "true");
+            assertEquals("capability is cached until reset", "Hello world", red("Hello world").toString());
+
+            resetCapabilities();
+            assertEquals("forcing ANSI on takes effect after a reset",
+                    RED + "Hello world" + RESET,
+                    red("Hello world").toString());
+        } finally {
+            System.clearProperty("visibleassertions.ansi.enabled");
+        }
+    }
+
     @After
     public void tearDown() throws Exception {
         System.setProperty("jansi.force", "false");
+        resetCapabilities();
     }
 
 }
\ No newline at end of file
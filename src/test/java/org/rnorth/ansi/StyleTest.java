@@ -0,0 +1,63 @@
+package org.rnorth.ansi;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.rnorth.visibleassertions.VisibleAssertions.assertEquals;
+import static org.rnorth.visibleassertions.VisibleAssertions.assertSame;
+
+public class StyleTest {
+
+    @Before
+    public void setUp() {
+        System.setProperty("visibleassertions.ansi.enabled", "true");
+        AnsiLite.resetCapabilities();
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty("visibleassertions.ansi.enabled");
+        AnsiLite.resetCapabilities();
+    }
+
+    @Test
+    public void combinedStylesUseASingleEscapeSequence() {
+        final Style style = Style.WHITE.and(Style.BRIGHT);
+        assertEquals("attributes are merged into one escape sequence",
+                "\u001B[37;1mHello world" + AnsiLite.RESET,
+                style.apply("Hello world"));
+    }
+
+    @Test
+    public void repeatedAttributesAreNotDuplicated() {
+        final Style style = Style.RED.and(Style.BRIGHT);
+        assertSame("combining with an attribute already present has no effect", style, style.and(Style.BRIGHT));
+    }
+
+    @Test
+    public void rendersToAppendable() throws IOException {
+        final StringWriter writer = new StringWriter();
+        Style.GREEN.render(writer, "Hello world");
+        assertEquals("text can be rendered to any Appendable", Style.GREEN.apply("Hello world"), writer.toString());
+    }
+
+    @Test
+    public void noEscapeSequencesWhenDisabled() {
+        System.setProperty("visibleassertions.ansi.enabled", "false");
+        AnsiLite.resetCapabilities();
+        assertEquals("styles render plain text when ANSI is disabled",
+                "Hello world",
+                Style.WHITE.and(Style.BRIGHT).apply("Hello world"));
+    }
+
+    @Test
+    public void styledAnsiLite() {
+        assertEquals("AnsiLite can format with a combined style",
+                "\u001B[34;4mHello world" + AnsiLite.RESET,
+                AnsiLite.styled(Style.BLUE.and(Style.UNDERLINE), "Hello world").toString());
+    }
+}
@@ -0,0 +1,21 @@
+package org.rnorth.ansi;
+
+import org.junit.Test;
+
+public class TtyDetectionTest {
+
+    @Test
+    public void detectionMethodsAgreeWithNativeIsatty() {
+        Boolean expected = TtyDetection.NATIVE.detect();
+        for (TtyDetection detection : TtyDetection.values()) {
+            Boolean result = detection.detect();
+            assert result == null || result.equals(expected) : detection + " detected " + result + " but isatty() says " + expected;
+        }
+    }
+
+    @Test
+    public void isTtyAgreesWithNativeIsatty() {
+        Boolean expected = TtyDetection.NATIVE.detect();
+        assert expected == null || CapabilityDetection.isTty() == expected;
+    }
+}
@@ -0,0 +1,221 @@
+package org.rnorth.visibleassertions;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerBuilder;
+import javax.management.MBeanServerDelegate;
+import javax.management.ObjectName;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.rnorth.visibleassertions.VisibleAssertions.*;
+
+public class AssertionMetricsTest {
+
+    @Before
+    public void setUp() {
+        setOutputSink(new MemorySink());
+        AssertionMetrics.enable();
+        AssertionMetrics.reset();
+    }
+
+    @After
+    public void tearDown() {
+        AssertionMetrics.disable();
+        AssertionMetrics.reset();
+        setOutputSink(new StdOutSink());
+    }
+
+    @Test
+    public void testCountsByType() {
+        pass("passed");
+        assertTrue("passed", true);
+        info("information");
+        warn("warning");
+        context("context");
+        try {
+            fail("failed");
+        } catch (AssertionError expected) {
+        }
+
+        MetricsSnapshot snapshot = AssertionMetrics.snapshot();
+        assert snapshot.getCount(AssertionEvent.Type.PASS) == 2;
+        assert snapshot.getCount(AssertionEvent.Type.FAIL) == 1;
+        assert snapshot.getCount(AssertionEvent.Type.INFO) == 1;
+        assert snapshot.getCount(AssertionEvent.Type.WARN) == 1;
+        assert snapshot.getCount(AssertionEvent.Type.CONTEXT) == 1;
+    }
+
+    @Test
+    public void testMatcherAndCallableLatency() {
+        assertThat("it matches", "A", equalTo("A"));
+        assertThat("it matches", "B", equalTo("B"));
+        assertThrows("it throws", IllegalStateException.class, new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                Thread.sleep(2);
+                throw new IllegalStateException();
+            }
+        });
+
+        MetricsSnapshot snapshot = AssertionMetrics.snapshot();
+        assert snapshot.getMatcherLatency().getCount() == 2;
+        assert snapshot.getCallableLatency().getCount() == 1;
+        assert snapshot.getCallableLatency().getMaxNanos() >= 2000000L;
+        assert snapshot.getCallableLatency().getPercentileNanos(99) >= 2000000L;
+    }
+
+    @Test
+    public void testNothingRecordedWhenDisabled() {
+        AssertionMetrics.disable();
+        pass("passed");
+        assertThat("it matches", "A", equalTo("A"));
+
+        MetricsSnapshot snapshot = AssertionMetrics.snapshot();
+        assert snapshot.getCount(AssertionEvent.Type.PASS) == 0;
+        assert snapshot.getMatcherLatency().getCount() == 0;
+    }
+
+    @Test
+    public void testCountsFromManyThreads() throws InterruptedException {
+        final int threadCount = 4;
+        final int passesPerThread = 10000;
+        setOutputSink(new NullSink());
+
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < passesPerThread; i++) {
+                        assertTrue("passed", true);
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assert AssertionMetrics.snapshot().getCount(AssertionEvent.Type.PASS) == threadCount * passesPerThread;
+    }
+
+    @Test
+    public void testExposedOverJmx() throws Exception {
+        pass("passed");
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("org.rnorth.visibleassertions:type=AssertionMetrics");
+        assert (Long) server.getAttribute(name, "PassCount") == 1L;
+        assert (Boolean) server.getAttribute(name, "Enabled");
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        LatencySnapshot snapshot = histogram.snapshot();
+        assert snapshot.getCount() == 100;
+        assert snapshot.getMaxNanos() == 100000L;
+        assert snapshot.getMeanNanos() == 50500L;
+        long p50 = snapshot.getPercentileNanos(50);
+        assert p50 >= 50000L && p50 <= 50000L * 1.25 : "p50 is within bucket precision, got " + p50;
+        long p99 = snapshot.getPercentileNanos(99);
+        assert p99 >= 99000L && p99 <= 100000L : "p99 is within bucket precision and capped at max, got " + p99;
+    }
+
+    @Test
+    public void testFailedRegistrationFromPropertyDoesNotBreakAssertions() throws IOException, InterruptedException {
+        List<String> command = Arrays.asList(
+                System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+                "-Dvisibleassertions.metrics=true",
+                "-Djavax.management.builder.initial=" + RefusingBuilder.class.getName(),
+                "-cp", System.getProperty("java.class.path"),
+                RunWithMetrics.class.getName());
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        process.getOutputStream().close();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        InputStream stream = process.getInputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = stream.read(buffer)) != -1) {
+            output.write(buffer, 0, read);
+        }
+        int exitCode = process.waitFor();
+        String result = new String(output.toByteArray(), StandardCharsets.UTF_8);
+
+        assert exitCode == 0 : "child JVM failed: " + result;
+        assert result.contains("passes recorded: 2") : "metrics are still recorded: " + result;
+        int first = result.indexOf("not available over JMX");
+        assert first != -1 : "a warning is shown: " + result;
+        assert result.indexOf("not available over JMX", first + 1) == -1 : "the warning is shown once: " + result;
+    }
+
+    /**
+     * Assertions with metrics enabled by the system property, executed in the child JVM.
+     */
+    public static class RunWithMetrics {
+        public static void main(String[] args) {
+            assertTrue("it is true", true);
+            reconfigure();
+            assertEquals("it is equal", "A", "A");
+            System.out.println("passes recorded: " + AssertionMetrics.snapshot().getCount(AssertionEvent.Type.PASS));
+        }
+    }
+
+    /**
+     * Builds an MBean server that refuses to register the assertion metrics MBean.
+     */
+    public static class RefusingBuilder extends MBeanServerBuilder {
+        @Override
+        public MBeanServer newMBeanServer(String defaultDomain, MBeanServer outer, MBeanServerDelegate delegate) {
+            final MBeanServer server = super.newMBeanServer(defaultDomain, outer, delegate);
+            return (MBeanServer) Proxy.newProxyInstance(MBeanServer.class.getClassLoader(),
+                    new Class<?>[]{MBeanServer.class}, new InvocationHandler() {
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                            if (method.getName().equals("registerMBean")
+                                    && args[1].toString().startsWith("org.rnorth.visibleassertions:")) {
+                                throw new MBeanRegistrationException(new Exception("refused"));
+                            }
+                            try {
+                                return method.invoke(server, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                        }
+                    });
+        }
+    }
+
+    private static class NullSink implements OutputSink {
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.rnorth.visibleassertions;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.rnorth.visibleassertions.VisibleAssertions.*;
+
+public class AsyncOutputTest {
+
+    private ByteArrayOutputStream stdOutBuffer;
+    private PrintStream originalStdOut;
+
+    @Before
+    public void setup() {
+        originalStdOut = System.out;
+        stdOutBuffer = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(stdOutBuffer, true));
+        System.setProperty("visibleassertions.output.async", "true");
+        System.setProperty("visibleassertions.ansi.enabled", "false");
+        reconfigure();
+    }
+
+    @After
+    public void tearDown() {
+        Output.flush();
+        System.clearProperty("visibleassertions.output.async");
+        System.clearProperty("visibleassertions.ansi.enabled");
+        reconfigure();
+        System.setOut(originalStdOut);
+    }
+
+    @Test
+    public void testFailureOutputIsWrittenBeforeAssertionError() {
+        info("Some information");
+        try {
+            assertEquals("it should be equal", "B", "A");
+            throw new IllegalStateException();
+        } catch (AssertionError expected) {
+            String captured = stdOutBuffer.toString();
+            assert captured.contains("Some information");
+            assert captured.contains("✘ it should be equal");
+            assert captured.contains("'A' does not equal expected 'B'");
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testFailingSinkDoesNotBlockAssertions() {
+        PrintStream originalStdErr = System.err;
+        ByteArrayOutputStream stdErrBuffer = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(stdErrBuffer, true));
+        setOutputSink(new OutputSink() {
+            @Override
+            public void write(byte[] bytes, int offset, int length) {
+                throw new IllegalStateException("sink is broken");
+            }
+
+            @Override
+            public void flush() {
+                throw new IllegalStateException("sink is broken");
+            }
+        });
+        try {
+            for (int i = 0; i < 20000; i++) {
+                pass("more lines than the ring buffer holds");
+            }
+            try {
+                fail("boom");
+                throw new IllegalStateException();
+            } catch (AssertionError expected) {
+                assert expected.getMessage().equals("boom");
+            }
+        } finally {
+            setOutputSink(new StdOutSink());
+            System.setErr(originalStdErr);
+        }
+
+        String reported = stdErrBuffer.toString();
+        assert reported.contains("sink is broken") : "the failure is reported";
+        assert reported.indexOf("failed to write output") == reported.lastIndexOf("failed to write output")
+                : "the failure is only reported once";
+    }
+
+    @Test
+    public void testOutputFromManyThreadsIsComplete() throws InterruptedException {
+        final int threadCount = 4;
+        final int linesPerThread = 5000;
+
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < threadCount; t++) {
+            final int threadNumber = t;
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < linesPerThread; i++) {
+                        pass("thread " + threadNumber + " line " + i);
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Output.flush();
+
+        String[] lines = stdOutBuffer.toString().split(System.lineSeparator());
+        assert lines.length == threadCount * linesPerThread : "expected every line, got " + lines.length;
+
+        int[] nextExpected = new int[threadCount];
+        for (String line : lines) {
+            String[] parts = line.substring(line.indexOf("thread ")).split(" ");
+            int threadNumber = Integer.parseInt(parts[1]);
+            int lineNumber = Integer.parseInt(parts[3]);
+            assert lineNumber == nextExpected[threadNumber] : "lines from each thread are written in order";
+            nextExpected[threadNumber]++;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.rnorth.visibleassertions;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.rnorth.visibleassertions.VisibleAssertions.*;
+
+public class BufferedOutputRuleTest {
+
+    private MemorySink sink;
+
+    @Before
+    public void setup() {
+        sink = new MemorySink();
+        setOutputSink(sink);
+    }
+
+    @After
+    public void tearDown() {
+        setOutputSink(new StdOutSink());
+    }
+
+    @Test
+    public void testOutputFromParallelTestsIsNotInterleaved() throws InterruptedException {
+        final int testCount = 8;
+        final int linesPerTest = 200;
+
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < testCount; t++) {
+            final int testNumber = t;
+            final Statement test = new BufferedOutputRule().apply(new Statement() {
+                @Override
+                public void evaluate() {
+                    for (int i = 0; i < linesPerTest; i++) {
+                        pass("test " + testNumber + " line " + i);
+                    }
+                }
+            }, Description.EMPTY);
+
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        test.evaluate();
+                    } catch (Throwable e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        String[] lines = sink.toString().split(System.lineSeparator());
+        assert lines.length == testCount * linesPerTest : "every line is written";
+        for (int block = 0; block < testCount; block++) {
+            String testNumber = lines[block * linesPerTest].replaceAll(".*test (\\d+) line.*", "$1");
+            for (int i = 0; i < linesPerTest; i++) {
+                assert lines[block * linesPerTest + i].contains("test " + testNumber + " line " + i) : "each test's output is a contiguous block";
+            }
+        }
+    }
+
+    @Test
+    public void testOutputIsWrittenWhenTestFails() {
+        Statement test = new BufferedOutputRule().apply(new Statement() {
+            @Override
+            public void evaluate() {
+                info("Before the failure");
+                assertTrue("it should be true", false);
+            }
+        }, Description.EMPTY);
+
+        try {
+            test.evaluate();
+            throw new IllegalStateException();
+        } catch (AssertionError expected) {
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+
+        assert sink.toString().contains("Before the failure");
+        assert sink.toString().contains("✘ it should be true");
+    }
+}
@@ -0,0 +1,78 @@
+package org.rnorth.visibleassertions;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.rnorth.visibleassertions.VisibleAssertions.*;
+
+/**
+ * Checks which classes are loaded by a short run of assertions in a fresh JVM, to make sure that native code and
+ * capability detection are only loaded when they are needed.
+ */
+public class ClassLoadingTest {
+
+    @Test
+    public void silencedRunDoesNotLoadAnsiOrNativeSupport() throws Exception {
+        String loaded = loadedClasses("-Dvisibleassertions.silence=true");
+
+        assert loaded.contains("org.rnorth.visibleassertions.VisibleAssertions") : "the run happened";
+        assert !loaded.contains("com.sun.jna") : "JNA is not loaded";
+        assert !loaded.contains("org.rnorth.ansi.AnsiLite") : "ANSI support is not loaded";
+        assert !loaded.contains("org.rnorth.ansi.CapabilityDetection") : "no capability detection takes place";
+        assert !loaded.contains("org.rnorth.visibleassertions.LatencyHistogram") : "metrics are not allocated";
+    }
+
+    @Test
+    public void runWithAnsiDisabledDoesNotLoadNativeSupport() throws Exception {
+        String loaded = loadedClasses("-Dvisibleassertions.ansi.enabled=false");
+
+        assert loaded.contains("org.rnorth.visibleassertions.VisibleAssertions") : "the run happened";
+        assert !loaded.contains("com.sun.jna") : "JNA is not loaded";
+        assert !loaded.contains("org.rnorth.ansi.CapabilityDetection") : "no capability detection takes place";
+        assert !loaded.contains("org.apache.maven.surefire.booter.ForkedBooter") : "the class path is not scanned";
+    }
+
+    private static String loadedClasses(String property) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<String>(Arrays.asList(
+                System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+                "-verbose:class",
+                property,
+                "-cp", System.getProperty("java.class.path"),
+                Run.class.getName()));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        process.getOutputStream().close();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        InputStream stream = process.getInputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = stream.read(buffer)) != -1) {
+            output.write(buffer, 0, read);
+        }
+        int exitCode = process.waitFor();
+        String result = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        assert exitCode == 0 : "child JVM failed: " + result;
+        return result;
+    }
+
+    /**
+     * A typical run of assertions, executed in the child JVM.
+     */
+    public static class Run {
+        public static void main(String[] args) {
+            context("A context");
+            info("Some information");
+            assertTrue("it is true", true);
+            assertEquals("it is equal", "A", "A");
+            pass("it passed");
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package org.rnorth.visibleassertions;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.rnorth.visibleassertions.VisibleAssertions.*;
+
+public class ContextScopeTest {
+
+    private MemorySink sink;
+
+    @Before
+    public void setup() {
+        System.setProperty("visibleassertions.ansi.enabled", "false");
+        reconfigure();
+        sink = new MemorySink();
+        setThreadOutputSink(sink);
+    }
+
+    @After
+    public void tearDown() {
+        setThreadOutputSink(null);
+        System.clearProperty("visibleassertions.ansi.enabled");
+        System.clearProperty("visibleassertions.silence");
+        reconfigure();
+    }
+
+    @Test
+    public void testOutputIsIndentedAndCounted() {
+        ContextScope outer = contextScope("Outer phase");
+        try {
+            pass("outer pass");
+            try (ContextScope inner = contextScope("Inner phase")) {
+                pass("inner pass");
+                assertEquals("it is equal", "A", "A");
+                assert inner.getPassCount() == 2;
+            }
+            assert outer.getPassCount() == 3 : "inner counts are added to the enclosing scope";
+        } finally {
+            outer.close();
+        }
+        pass("after the scopes");
+
+        String[] lines = sink.toString().split(System.lineSeparator());
+        assert lines[0].startsWith("┈┈┈┈ Outer phase ┈");
+        assert lines[1].equals("            ✔ outer pass");
+        assert lines[2].startsWith("    ┈┈┈┈ Inner phase ┈");
+        assert lines[3].equals("                ✔ inner pass");
+        assert lines[4].equals("                ✔ it is equal");
+        assert lines[5].matches("            ┈ Inner phase finished in [0-9.]+ ms: 2 passed, 0 failed");
+        assert lines[6].matches("        ┈ Outer phase finished in [0-9.]+ ms: 3 passed, 0 failed");
+        assert lines[7].equals("        ✔ after the scopes") : "indentation ends with the scope";
+    }
+
+    @Test
+    public void testFailuresAreCountedWhenTheScopeCloses() {
+        try (ContextScope scope = contextScope("Failing phase")) {
+            pass("a pass");
+            assert scope.getPassCount() == 1;
+            assertEquals("it is equal", "A", "B");
+            throw new IllegalStateException();
+        } catch (AssertionError expected) {
+        }
+
+        assert sink.toString().matches("(?s).*Failing phase finished in [0-9.]+ ms: 1 passed, 1 failed.*");
+    }
+
+    @Test
+    public void testSilencedAssertionsAreCounted() {
+        System.setProperty("visibleassertions.silence", "true");
+        reconfigure();
+
+        ContextScope scope = contextScope("Silent phase");
+        pass("a pass");
+        assertThat("the value", "A", org.hamcrest.CoreMatchers.equalTo("A"));
+        scope.close();
+
+        assert scope.getPassCount() == 2;
+        assert sink.size() == 0;
+    }
+
+    @Test
+    public void testClosingAScopeIsNotAnEvent() {
+        final List<AssertionEvent.Type> types = new ArrayList<AssertionEvent.Type>();
+        AssertionListener listener = new AssertionListener() {
+            @Override
+            public void onEvent(AssertionEvent event) {
+                types.add(event.getType());
+            }
+        };
+        AssertionMetrics.enable();
+        AssertionMetrics.reset();
+        addListener(listener);
+        try {
+            ContextScope scope = contextScope("Phase");
+            pass("a pass");
+            scope.close();
+
+            MetricsSnapshot snapshot = AssertionMetrics.snapshot();
+            assert snapshot.getCount(AssertionEvent.Type.INFO) == 0 : "the summary is not counted as information";
+            assert snapshot.getCount(AssertionEvent.Type.CONTEXT) == 1;
+            assert types.equals(Arrays.asList(AssertionEvent.Type.CONTEXT, AssertionEvent.Type.PASS))
+                    : "listeners only receive what was asserted, but got " + types;
+            assert sink.toString().contains("Phase finished in") : "the summary is still shown";
+        } finally {
+            removeListener(listener);
+            AssertionMetrics.disable();
+            AssertionMetrics.reset();
+        }
+    }
+
+    @Test
+    public void testScopesMustBeClosedInnermostFirst() {
+        ContextScope outer = contextScope("Outer");
+        ContextScope inner = contextScope("Inner");
+        try {
+            outer.close();
+            throw new AssertionError("closing the outer scope first should fail");
+        } catch (IllegalStateException expected) {
+        } finally {
+            inner.close();
+            outer.close();
+        }
+        inner.close();
+
+        pass("after the scopes");
+        assert sink.toString().endsWith("        ✔ after the scopes" + System.lineSeparator());
+    }
+
+    @Test
+    public void testScopesAreLocalToTheirThread() throws InterruptedException {
+        final MemorySink otherSink = new MemorySink();
+        try (ContextScope scope = contextScope("Phase")) {
+            Thread other = new Thread() {
+                @Override
+                public void run() {
+                    setThreadOutputSink(otherSink);
+                    pass("on another thread");
+                }
+            };
+            other.start();
+            other.join();
+
+            assert scope.getPassCount() == 0;
+        }
+
+        assert otherSink.toString().equals("        ✔ on another thread" + System.lineSeparator());
+    }
+}
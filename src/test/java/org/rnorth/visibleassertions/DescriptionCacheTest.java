@@ -0,0 +1,144 @@
+package org.rnorth.visibleassertions;
+
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.rnorth.visibleassertions.VisibleAssertions.*;
+
+public class DescriptionCacheTest {
+
+    private MemorySink sink;
+
+    @Before
+    public void setup() {
+        sink = new MemorySink();
+        setThreadOutputSink(sink);
+        DescriptionCache.clear();
+    }
+
+    @After
+    public void tearDown() {
+        setThreadOutputSink(null);
+        System.clearProperty("visibleassertions.matcher.cache");
+        System.clearProperty("visibleassertions.silence.passes");
+        System.clearProperty("visibleassertions.silence.failures");
+        reconfigure();
+        DescriptionCache.clear();
+    }
+
+    @Test
+    public void testReusedMatcherIsDescribedOnce() {
+        CountingMatcher matcher = new CountingMatcher(true);
+        for (int i = 0; i < 10; i++) {
+            assertThat("the value", "A", matcher);
+        }
+
+        assert matcher.descriptions == 1 : "the description is cached, but was built " + matcher.descriptions + " times";
+        assert sink.toString().contains("the value is counted") : "the cached description is still output";
+    }
+
+    @Test
+    public void testCacheCanBeDisabled() {
+        System.setProperty("visibleassertions.matcher.cache", "false");
+        reconfigure();
+
+        CountingMatcher matcher = new CountingMatcher(true);
+        for (int i = 0; i < 10; i++) {
+            assertThat("the value", "A", matcher);
+        }
+
+        assert matcher.descriptions == 10;
+    }
+
+    @Test
+    public void testSilencedPassesAreNotDescribed() {
+        System.setProperty("visibleassertions.silence.passes", "true");
+        reconfigure();
+
+        CountingMatcher matcher = new CountingMatcher(true);
+        assertThat("the value", "A", matcher);
+
+        assert matcher.descriptions == 0;
+    }
+
+    @Test
+    public void testSilencedPassesAreDescribedForListeners() {
+        System.setProperty("visibleassertions.silence.passes", "true");
+        reconfigure();
+        RecordingListener listener = new RecordingListener();
+        addListener(listener);
+        try {
+            assertThat("the value", "A", new CountingMatcher(true));
+        } finally {
+            removeListener(listener);
+        }
+
+        assert "the value is counted".equals(listener.lastMessage);
+    }
+
+    @Test
+    public void testSilencedFailuresAreNotDescribed() {
+        System.setProperty("visibleassertions.silence.failures", "true");
+        reconfigure();
+
+        CountingMatcher matcher = new CountingMatcher(false);
+        assertThat("the value", "A", matcher);
+
+        assert matcher.descriptions == 0;
+        assert matcher.mismatches == 0;
+    }
+
+    @Test
+    public void testMismatchIsOnlyDescribedOnFailure() {
+        CountingMatcher matcher = new CountingMatcher(true);
+        assertThat("the value", "A", matcher);
+        assert matcher.mismatches == 0;
+
+        CountingMatcher failing = new CountingMatcher(false);
+        try {
+            assertThat("the value", "A", failing);
+            throw new IllegalStateException();
+        } catch (AssertionError expected) {
+            assert failing.mismatches == 1;
+        }
+    }
+
+    private static class CountingMatcher extends BaseMatcher<Object> {
+        private final boolean matches;
+        int descriptions;
+        int mismatches;
+
+        CountingMatcher(boolean matches) {
+            this.matches = matches;
+        }
+
+        @Override
+        public boolean matches(Object item) {
+            return matches;
+        }
+
+        @Override
+        public void describeTo(Description description) {
+            descriptions++;
+            description.appendText("is counted");
+        }
+
+        @Override
+        public void describeMismatch(Object item, Description description) {
+            mismatches++;
+            description.appendText("was not counted");
+        }
+    }
+
+    private static class RecordingListener implements AssertionListener {
+        String lastMessage;
+
+        @Override
+        public void onEvent(AssertionEvent event) {
+            lastMessage = event.getMessage();
+        }
+    }
+}
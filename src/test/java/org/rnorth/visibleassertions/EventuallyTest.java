@@ -0,0 +1,158 @@
+package org.rnorth.visibleassertions;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.rnorth.visibleassertions.VisibleAssertions.*;
+
+public class EventuallyTest {
+
+    private MemorySink sink;
+
+    @Before
+    public void setUp() {
+        sink = new MemorySink();
+        setOutputSink(sink);
+    }
+
+    @After
+    public void tearDown() {
+        setOutputSink(new StdOutSink());
+    }
+
+    @Test
+    public void testConditionWhichBecomesTrue() {
+        final AtomicInteger calls = new AtomicInteger();
+        assertEventually("it becomes true", 5, TimeUnit.SECONDS, new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return calls.incrementAndGet() >= 3;
+            }
+        });
+
+        assert calls.get() == 3;
+        assert sink.toString().contains("✔ it becomes true (after 3 attempts in ") : sink.toString();
+    }
+
+    @Test
+    public void testConditionWhichStaysFalse() {
+        final AtomicInteger calls = new AtomicInteger();
+        long start = System.nanoTime();
+        try {
+            assertEventually("it becomes true", 200, TimeUnit.MILLISECONDS, new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    calls.incrementAndGet();
+                    return false;
+                }
+            });
+            throw new IllegalStateException("assertion should have failed");
+        } catch (AssertionError e) {
+            assert e.getMessage().contains("the condition was still false (after " + calls.get() + " attempts in ") : e.getMessage();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assert elapsedMillis >= 200 && elapsedMillis < 2000 : "waited " + elapsedMillis + "ms";
+        assert calls.get() >= 3 && calls.get() < 20 : "intervals back off, but " + calls.get() + " attempts were made";
+        assert sink.toString().contains("✘ it becomes true");
+    }
+
+    @Test
+    public void testNonRetryableExceptionFailsFast() {
+        final AtomicInteger calls = new AtomicInteger();
+        long start = System.nanoTime();
+        try {
+            assertEventually("it becomes true", 10, TimeUnit.SECONDS, new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    calls.incrementAndGet();
+                    throw new IllegalStateException("broken");
+                }
+            });
+            throw new IllegalStateException("assertion should have failed");
+        } catch (AssertionError e) {
+            assert e.getMessage().contains("IllegalStateException was thrown (after 1 attempt in ") : e.getMessage();
+            assert e.getMessage().endsWith("): broken") : e.getMessage();
+        }
+
+        assert calls.get() == 1;
+        assert TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000;
+    }
+
+    @Test
+    public void testRetryableExceptionIsRetried() {
+        final AtomicInteger calls = new AtomicInteger();
+        assertEventually("it becomes available", 5, TimeUnit.SECONDS,
+                Polling.every(1, 10, TimeUnit.MILLISECONDS).retryingOn(IOException.class),
+                new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws IOException {
+                        if (calls.incrementAndGet() < 3) {
+                            throw new IOException("not yet");
+                        }
+                        return true;
+                    }
+                });
+
+        assert sink.toString().contains("✔ it becomes available (after 3 attempts in ");
+    }
+
+    @Test
+    public void testMatcherVariant() {
+        final AtomicInteger counter = new AtomicInteger();
+        assertEventually("the counter", 5, TimeUnit.SECONDS, new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return counter.incrementAndGet();
+            }
+        }, equalTo(2));
+        assert sink.toString().contains("✔ the counter <2> (after 2 attempts in ") : sink.toString();
+
+        try {
+            assertEventually("the value", 100, TimeUnit.MILLISECONDS, new Callable<String>() {
+                @Override
+                public String call() {
+                    return "A";
+                }
+            }, equalTo("B"));
+            throw new IllegalStateException("assertion should have failed");
+        } catch (AssertionError e) {
+            assert e.getMessage().contains("assertion on the value failed: asserted that it eventually \"B\" but was \"A\" (after ") : e.getMessage();
+        }
+    }
+
+    @Test
+    public void testPollingOnSharedSchedulerFromManyThreads() throws InterruptedException {
+        final int threadCount = 20;
+        final AtomicInteger passes = new AtomicInteger();
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    final long readyAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+                    assertEventually("it becomes ready", 5, TimeUnit.SECONDS, new Callable<Boolean>() {
+                        @Override
+                        public Boolean call() {
+                            return System.nanoTime() >= readyAt;
+                        }
+                    });
+                    passes.incrementAndGet();
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assert passes.get() == threadCount;
+    }
+}
@@ -0,0 +1,91 @@
+package org.rnorth.visibleassertions;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.rnorth.visibleassertions.VisibleAssertions.*;
+
+public class HintRendererTest {
+
+    @After
+    public void tearDown() {
+        System.clearProperty("visibleassertions.hint.maxlength");
+        reconfigure();
+    }
+
+    @Test
+    public void testShortValuesAreRenderedInFull() {
+        assert HintRenderer.quoted("hello").equals("'hello'");
+        assert HintRenderer.quoted(null).equals("null");
+        assert HintRenderer.quoted(Arrays.asList(1, 2, 3)).equals("'[1, 2, 3]'");
+    }
+
+    @Test
+    public void testLongValuesAreAbbreviatedInTheMiddle() {
+        setMaxLength(100);
+        String value = repeat('a', 50) + repeat('b', 10000) + repeat('c', 50);
+
+        String rendered = HintRenderer.quoted(value);
+
+        assert rendered.equals("'" + repeat('a', 50) + "...(10000 characters omitted)..." + repeat('c', 50) + "'") : rendered;
+    }
+
+    @Test
+    public void testLongCollectionsAreTruncated() {
+        setMaxLength(100);
+        List<Integer> list = new ArrayList<Integer>();
+        for (int i = 0; i < 100000; i++) {
+            list.add(i);
+        }
+
+        String rendered = HintRenderer.quoted(list);
+
+        assert rendered.startsWith("'[0, 1, 2, ");
+        assert rendered.endsWith(" more elements)]'") : rendered;
+        assert rendered.length() < 150 : rendered;
+    }
+
+    @Test
+    public void testFailureOfNearlyMatchingStringsShowsFirstDifference() {
+        setMaxLength(40);
+        String expected = repeat('x', 5000) + "ABCDEFGHIJ" + repeat('y', 5000);
+        String actual = repeat('x', 5000) + "ABCDEFGHIj" + repeat('y', 5000);
+
+        try {
+            assertEquals("the strings are equal", expected, actual);
+            throw new IllegalStateException("assertion should have failed");
+        } catch (AssertionError e) {
+            assert e.getMessage().endsWith(": '...xABCDEFGHIjyyyyyyyyy...' does not equal expected '...xABCDEFGHIJyyyyyyyyy...' (first difference at character 5009)") : e.getMessage();
+        }
+    }
+
+    @Test
+    public void testFailureOfHugeValuesIsBounded() {
+        setMaxLength(100);
+        String expected = repeat('x', 1000000);
+        StringBuilder actual = new StringBuilder(repeat('y', 1000000));
+
+        try {
+            assertEquals("the values are equal", expected, actual);
+            throw new IllegalStateException("assertion should have failed");
+        } catch (AssertionError e) {
+            assert e.getMessage().length() < 400 : e.getMessage().length();
+            assert e.getMessage().contains("first difference at character 0");
+        }
+    }
+
+    private static void setMaxLength(int maxLength) {
+        System.setProperty("visibleassertions.hint.maxlength", String.valueOf(maxLength));
+        reconfigure();
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
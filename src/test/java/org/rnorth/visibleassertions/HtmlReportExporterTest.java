@@ -0,0 +1,117 @@
+package org.rnorth.visibleassertions;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assume.assumeTrue;
+import static org.rnorth.visibleassertions.VisibleAssertions.*;
+
+public class HtmlReportExporterTest {
+
+    private Path file;
+    private HtmlReportExporter report;
+
+    @Before
+    public void setup() throws IOException {
+        setOutputSink(new MemorySink());
+        file = Files.createTempFile("visible-assertions", ".html");
+        report = new HtmlReportExporter(file);
+        addListener(report);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        removeListener(report);
+        report.close();
+        Files.deleteIfExists(file);
+        setOutputSink(new StdOutSink());
+    }
+
+    @Test
+    public void testEventsAreReportedInSections() throws IOException {
+        info("Before any context");
+        context("First <context>");
+        assertThat("the string", "a value", containsString("val"));
+        context("Second context");
+        try {
+            assertEquals("it should be equal", "B", "A");
+        } catch (AssertionError expected) {
+        }
+        warn("Something & something else");
+        report.close();
+
+        String html = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        assert html.startsWith("<!DOCTYPE html>");
+        assert html.contains("<main>\n<div class=\"info\"") : "events before the first context are outside any section";
+        assert html.contains("<details open><summary>First &lt;context&gt;</summary>\n<div class=\"pass\"")
+                : "contexts start sections and are escaped";
+        assert html.contains("✔ the string a string containing &quot;val&quot;<span class=\"duration\">")
+                : "timed events show their duration";
+        assert html.contains("</div>\n</details>\n<details open><summary>Second context</summary>")
+                : "each context closes the previous section";
+        assert html.contains("✘ it should be equal<div class=\"hint\">'A' does not equal expected 'B'</div>")
+                : "failures show their hint";
+        assert html.contains("Something &amp; something else");
+        assert html.endsWith("</details>\n</main>\n<footer>1 passed, 1 failed</footer>\n</body>\n</html>\n")
+                : "the report is completed with a summary";
+    }
+
+    @Test
+    public void testLargeReportsAreWrittenIncrementally() throws IOException {
+        for (int i = 0; i < 5000; i++) {
+            pass("a pass which is repeated many times, number " + i);
+        }
+
+        assert Files.size(file) > 0 : "the report is written before it is closed";
+
+        report.close();
+        String html = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        assert html.contains("number 0</div>");
+        assert html.contains("number 4999</div>");
+        assert html.contains("<footer>5000 passed, 0 failed</footer>");
+    }
+
+    @Test
+    public void testFileIsClosedWhenWritingFails() throws IOException {
+        // Writes to /dev/full always fail with "no space left on device"
+        Path full = Paths.get("/dev/full");
+        File descriptors = new File("/proc/self/fd");
+        assumeTrue(Files.isWritable(full) && descriptors.isDirectory());
+
+        HtmlReportExporter failing = new HtmlReportExporter(full);
+        assert countOpen(descriptors, full) == 1;
+        try {
+            failing.close();
+            throw new IllegalStateException("writing the report should have failed");
+        } catch (IOException expected) {
+        }
+
+        assert countOpen(descriptors, full) == 0 : "the file is closed even though writing failed";
+    }
+
+    private static int countOpen(File descriptors, Path target) {
+        int count = 0;
+        File[] links = descriptors.listFiles();
+        if (links != null) {
+            for (File link : links) {
+                try {
+                    if (Files.readSymbolicLink(link.toPath()).equals(target)) {
+                        count++;
+                    }
+                } catch (IOException ignored) {
+                    // Descriptor closed while listing
+                }
+            }
+        }
+        return count;
+    }
+}
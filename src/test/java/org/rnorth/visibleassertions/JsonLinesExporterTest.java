@@ -0,0 +1,74 @@
+package org.rnorth.visibleassertions;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.rnorth.visibleassertions.VisibleAssertions.*;
+
+public class JsonLinesExporterTest {
+
+    private Path file;
+    private JsonLinesExporter exporter;
+
+    @Before
+    public void setup() throws IOException {
+        setOutputSink(new MemorySink());
+        file = Files.createTempFile("visible-assertions", ".jsonl");
+        exporter = new JsonLinesExporter(file);
+        addListener(exporter);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        removeListener(exporter);
+        exporter.close();
+        Files.deleteIfExists(file);
+        setOutputSink(new StdOutSink());
+    }
+
+    @Test
+    public void testEventsAreExportedAsJsonLines() throws IOException {
+        context("A context");
+        info("Some \"quoted\" information");
+        assertThat("the string", "a value", containsString("val"));
+        try {
+            assertEquals("it should be equal", "B", "A");
+        } catch (AssertionError expected) {
+        }
+        exporter.close();
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assert lines.size() == 4 : "one line per event";
+        assert lines.get(0).startsWith("{\"type\":\"context\",\"message\":\"A context\",\"hint\":null,");
+        assert lines.get(1).contains("\"message\":\"Some \\\"quoted\\\" information\"") : "strings are escaped";
+        assert lines.get(2).startsWith("{\"type\":\"pass\",\"message\":\"the string a string containing \\\"val\\\"\"");
+        assert !lines.get(2).contains("\"durationNanos\":null") : "matcher evaluation is timed";
+        assert lines.get(3).startsWith("{\"type\":\"fail\",\"message\":\"it should be equal\",\"hint\":\"'A' does not equal expected 'B'\",");
+        assert lines.get(3).contains("\"thread\":\"" + Thread.currentThread().getName() + "\"");
+    }
+
+    @Test
+    public void testEventsAreDeliveredWhenOutputIsSilenced() throws IOException {
+        System.setProperty("visibleassertions.silence", "true");
+        reconfigure();
+        try {
+            pass("Something passed");
+        } finally {
+            System.setProperty("visibleassertions.silence", "false");
+            reconfigure();
+        }
+        exporter.flush();
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assert lines.size() == 1;
+        assert lines.get(0).contains("\"message\":\"Something passed\"");
+    }
+}
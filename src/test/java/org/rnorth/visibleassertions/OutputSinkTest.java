@@ -0,0 +1,79 @@
+package org.rnorth.visibleassertions;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.rnorth.visibleassertions.VisibleAssertions.*;
+
+public class OutputSinkTest {
+
+    @After
+    public void tearDown() {
+        setThreadOutputSink(null);
+        setOutputSink(new StdOutSink());
+    }
+
+    @Test
+    public void testGlobalSink() {
+        MemorySink sink = new MemorySink();
+        setOutputSink(sink);
+
+        pass("Something passed");
+        info("Some information");
+
+        assert sink.toString().contains("✔ Something passed");
+        assert sink.toString().contains("Some information");
+    }
+
+    @Test
+    public void testThreadSinkOverridesGlobalSink() throws InterruptedException {
+        final MemorySink globalSink = new MemorySink();
+        MemorySink threadSink = new MemorySink();
+        setOutputSink(globalSink);
+        setThreadOutputSink(threadSink);
+
+        pass("On the test thread");
+        Thread other = new Thread() {
+            @Override
+            public void run() {
+                pass("On another thread");
+            }
+        };
+        other.start();
+        other.join();
+
+        assert threadSink.toString().contains("On the test thread");
+        assert !threadSink.toString().contains("On another thread");
+        assert globalSink.toString().contains("On another thread");
+        assert !globalSink.toString().contains("On the test thread");
+    }
+
+    @Test
+    public void testFileSink() throws IOException {
+        Path file = Files.createTempFile("visible-assertions", ".log");
+        try {
+            FileSink sink = new FileSink(file);
+            setOutputSink(sink);
+            try {
+                assertEquals("it should be equal", "B", "A");
+            } catch (AssertionError expected) {
+            }
+
+            String written = new String(Files.readAllBytes(file), Charset.defaultCharset());
+            assert written.contains("✘ it should be equal") : "failures are flushed to the file before throwing";
+
+            pass("Something passed");
+            sink.close();
+
+            written = new String(Files.readAllBytes(file), Charset.defaultCharset());
+            assert written.contains("✔ Something passed") : "remaining output is written on close";
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
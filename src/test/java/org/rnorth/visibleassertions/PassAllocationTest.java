@@ -0,0 +1,67 @@
+package org.rnorth.visibleassertions;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assume.assumeTrue;
+import static org.rnorth.visibleassertions.VisibleAssertions.pass;
+
+/**
+ * Checks that the pass() hot path does not allocate once warmed up.
+ */
+public class PassAllocationTest {
+
+    private static final int ITERATIONS = 100000;
+
+    private PrintStream originalStdOut;
+
+    @Before
+    public void setup() {
+        originalStdOut = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+    }
+
+    @After
+    public void tearDown() {
+        System.setOut(originalStdOut);
+    }
+
+    @Test
+    public void passDoesNotAllocate() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+        long threadId = Thread.currentThread().getId();
+        String message = "a message which is passed on every iteration";
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            pass(message);
+        }
+
+        long before = allocationBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            pass(message);
+        }
+        long after = allocationBean.getThreadAllocatedBytes(threadId);
+
+        double bytesPerCall = (after - before) / (double) ITERATIONS;
+        assert bytesPerCall < 1.0 : "pass() allocated " + bytesPerCall + " bytes per call";
+    }
+}
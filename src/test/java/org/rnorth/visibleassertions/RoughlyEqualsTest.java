@@ -0,0 +1,186 @@
+package org.rnorth.visibleassertions;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assume.assumeTrue;
+import static org.rnorth.visibleassertions.VisibleAssertions.*;
+
+public class RoughlyEqualsTest {
+
+    private MemorySink sink;
+
+    @Before
+    public void setUp() {
+        sink = new MemorySink();
+        setOutputSink(sink);
+    }
+
+    @After
+    public void tearDown() {
+        setOutputSink(new StdOutSink());
+    }
+
+    @Test
+    public void testBoxedWithOneNull() {
+        try {
+            assertRoughlyEquals("it should be equal", 1.0, null, 0.1);
+            throw new IllegalStateException("assertion should have failed");
+        } catch (AssertionError e) {
+            assert e.getMessage().endsWith("null does not equal expected '1.0'") : e.getMessage();
+        }
+        assertRoughlyEquals("both null are equal", null, null, 0.1);
+        assert sink.toString().contains("✔ both null are equal");
+    }
+
+    @Test
+    public void testMixedBoxedAndPrimitiveArgumentsCompile() {
+        // Every call shape which compiled against the original boxed-only signature must still compile unambiguously
+        Double boxed = 3.14;
+        double primitive = 3.14;
+        assertRoughlyEquals("boxed, primitive, primitive", boxed, 3.14, 0.01);
+        assertRoughlyEquals("primitive, boxed, primitive", primitive, boxed, 0.01);
+        assertRoughlyEquals("boxed, boxed, primitive", boxed, boxed, 0.01);
+        assertRoughlyEquals("primitive, primitive, boxed", primitive, 3.14, Double.valueOf(0.01));
+        assertRoughlyEquals("all primitive", primitive, 3.14, 0.01);
+        assertRoughlyEquals("all boxed", boxed, boxed, Double.valueOf(0.01));
+        assertRoughlyEqualsAbsolute("unboxed variant", primitive, boxed, 0.01);
+        assert sink.toString().contains("✔ all boxed");
+    }
+
+    @Test
+    public void testFloat() {
+        assertRoughlyEqualsAbsolute("floats are roughly equal", 1.0f, 1.05f, 0.1f);
+        assert sink.toString().contains("✔ floats are roughly equal");
+
+        try {
+            assertRoughlyEqualsAbsolute("floats should be roughly equal", 1.0f, 1.5f, 0.1f);
+            throw new IllegalStateException("assertion should have failed");
+        } catch (AssertionError e) {
+            assert e.getMessage().endsWith("'1.5' differs from expected '1.0' by more than allowed amount (0.1)") : e.getMessage();
+        }
+    }
+
+    @Test
+    public void testRelative() {
+        assertRoughlyEqualsRelative("large values are relatively equal", 1000000.0, 1000500.0, 0.001);
+        assertRoughlyEqualsRelative("zeros are relatively equal", 0.0, -0.0, 0.0);
+        assert sink.toString().contains("✔ large values are relatively equal");
+        assert sink.toString().contains("✔ zeros are relatively equal");
+
+        try {
+            assertRoughlyEqualsRelative("it should be relatively equal", 100.0, 110.0, 0.01);
+            throw new IllegalStateException("assertion should have failed");
+        } catch (AssertionError e) {
+            assert e.getMessage().contains("'110.0' differs from expected '100.0' by a relative amount of 0.0909") : e.getMessage();
+            assert e.getMessage().endsWith("more than allowed (0.01)") : e.getMessage();
+        }
+    }
+
+    @Test
+    public void testUlps() {
+        double value = 0.1 + 0.2;
+        assertRoughlyEqualsUlps("sum is within 1 ulp", 0.3, value, 1);
+        assertRoughlyEqualsUlps("adjacent values either side of zero", Double.MIN_VALUE, -Double.MIN_VALUE, 2);
+        assertRoughlyEqualsUlps("float is within 1 ulp", 1.0f, Math.nextUp(1.0f), 1);
+        assert sink.toString().contains("✔ sum is within 1 ulp");
+        assert sink.toString().contains("✔ adjacent values either side of zero");
+        assert sink.toString().contains("✔ float is within 1 ulp");
+
+        try {
+            assertRoughlyEqualsUlps("it should be within 1 ulp", 1.0, Math.nextUp(Math.nextUp(1.0)), 1);
+            throw new IllegalStateException("assertion should have failed");
+        } catch (AssertionError e) {
+            assert e.getMessage().contains("by 2 ulps, more than allowed (1)") : e.getMessage();
+        }
+
+        try {
+            assertRoughlyEqualsUlps("opposite signs are far apart", -1.0, 1.0, 1000000);
+            throw new IllegalStateException("assertion should have failed");
+        } catch (AssertionError e) {
+            assert e.getMessage().contains("by 9214364837600034816 ulps") : e.getMessage();
+        }
+    }
+
+    @Test
+    public void testNaNIsNeverWithinTolerance() {
+        try {
+            assertRoughlyEqualsUlps("NaN is not equal", Double.NaN, Double.NaN, 1000);
+            throw new IllegalStateException("assertion should have failed");
+        } catch (AssertionError expected) {
+        }
+    }
+
+    @Test
+    public void testArrays() {
+        double[] expected = new double[1000];
+        double[] actual = new double[1000];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = i;
+            actual[i] = i + 0.0001;
+        }
+        assertRoughlyEqualsAbsolute("vectors are roughly equal", expected, actual, 0.001);
+        assert sink.toString().contains("✔ vectors are roughly equal");
+
+        actual[10] = 10.5;
+        actual[20] = 22.0;
+        try {
+            assertRoughlyEqualsAbsolute("vectors should be roughly equal", expected, actual, 0.001);
+            throw new IllegalStateException("assertion should have failed");
+        } catch (AssertionError e) {
+            assert e.getMessage().endsWith("2 of 1000 elements differ by too much; the worst is at index 20: '22.0' differs from expected '20.0' by more than allowed amount (0.001)") : e.getMessage();
+        }
+
+        actual[500] = Double.NaN;
+        try {
+            assertRoughlyEqualsRelative("vectors should be relatively equal", expected, actual, 0.01);
+            throw new IllegalStateException("assertion should have failed");
+        } catch (AssertionError e) {
+            assert e.getMessage().contains("the worst is at index 500") : e.getMessage();
+        }
+
+        try {
+            assertRoughlyEqualsUlps("vectors should be the same length", expected, new double[3], 1);
+            throw new IllegalStateException("assertion should have failed");
+        } catch (AssertionError e) {
+            assert e.getMessage().endsWith("actual has length 3 but expected length 1000") : e.getMessage();
+        }
+    }
+
+    @Test
+    public void testPrimitiveOverloadDoesNotAllocate() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+        setOutputSink(new OutputSink() {
+            @Override
+            public void write(byte[] bytes, int offset, int length) {
+            }
+
+            @Override
+            public void flush() {
+            }
+        });
+
+        long threadId = Thread.currentThread().getId();
+        int iterations = 100000;
+        for (int i = 0; i < iterations; i++) {
+            assertRoughlyEqualsAbsolute("it is roughly equal", i * 1.5, i * 1.5 + 0.01, 0.1);
+        }
+
+        long before = allocationBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            assertRoughlyEqualsAbsolute("it is roughly equal", i * 1.5, i * 1.5 + 0.01, 0.1);
+        }
+        long after = allocationBean.getThreadAllocatedBytes(threadId);
+
+        double bytesPerCall = (after - before) / (double) iterations;
+        assert bytesPerCall < 1.0 : "assertRoughlyEquals allocated " + bytesPerCall + " bytes per call";
+    }
+}
@@ -0,0 +1,132 @@
+package org.rnorth.visibleassertions;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.rnorth.visibleassertions.VisibleAssertions.*;
+
+public class SoftAssertionsTest {
+
+    private MemorySink sink;
+
+    @Before
+    public void setUp() {
+        sink = new MemorySink();
+        setOutputSink(sink);
+    }
+
+    @After
+    public void tearDown() {
+        setOutputSink(new StdOutSink());
+    }
+
+    @Test
+    public void testFailuresAreReportedWhenScopeCloses() {
+        try {
+            try (SoftAssertions softly = softly()) {
+                assertEquals("first is equal", "A", "B");
+                assertTrue("second is true", false);
+                pass("third passed");
+                assert softly.getFailureCount() == 2;
+            }
+            throw new IllegalStateException("closing the scope should have thrown");
+        } catch (AssertionError e) {
+            assert e.getMessage().startsWith("2 soft assertions failed");
+            assert e.getMessage().contains("first is equal: 'B' does not equal expected 'A'");
+            assert e.getMessage().contains("second is true");
+        }
+
+        String output = sink.toString();
+        assert output.contains("✘ first is equal");
+        assert output.contains("'B' does not equal expected 'A'");
+        assert output.contains("✘ second is true");
+        assert output.contains("✔ third passed");
+        assert output.contains("✘ 2 soft assertions failed");
+    }
+
+    @Test
+    public void testNoFailuresDoesNotThrow() {
+        try (SoftAssertions softly = softly()) {
+            assertTrue("it is true", true);
+            assert !softly.hasFailures();
+        }
+        assert SoftAssertions.current() == null;
+    }
+
+    @Test
+    public void testRepeatedFailuresAreShownOnce() {
+        try {
+            try (SoftAssertions scope = softly()) {
+                for (int i = 0; i < 1000; i++) {
+                    assertEquals("the value is correct", 1, 2);
+                }
+                assert scope.getFailureCount() == 1000;
+            }
+            throw new IllegalStateException("closing the scope should have thrown");
+        } catch (AssertionError e) {
+            assert e.getMessage().startsWith("1000 soft assertions failed");
+            assert e.getMessage().contains("(x1000)");
+        }
+
+        assert sink.toString().split("✘ the value is correct", -1).length == 2 : "the failure is shown once";
+    }
+
+    @Test
+    public void testNumberOfFailuresShownIsCapped() {
+        try {
+            try (SoftAssertions scope = softly(3)) {
+                for (int i = 0; i < 10; i++) {
+                    fail("failure " + i);
+                }
+                assert scope.getFailureCount() == 10 : "failures which are not shown are still counted";
+            }
+            throw new IllegalStateException("closing the scope should have thrown");
+        } catch (AssertionError e) {
+            assert e.getMessage().startsWith("10 soft assertions failed");
+            assert e.getMessage().contains("failure 2");
+            assert !e.getMessage().contains("failure 3");
+            assert e.getMessage().contains("7 more not shown");
+        }
+
+        assert sink.toString().contains("✘ failure 2");
+        assert !sink.toString().contains("✘ failure 3");
+    }
+
+    @Test
+    public void testNestedScopeFailuresAreAddedToOuterScope() {
+        try {
+            try (SoftAssertions outer = softly()) {
+                try (SoftAssertions inner = softly()) {
+                    fail("inner failure");
+                    assert inner.getFailureCount() == 1;
+                }
+                assert outer.getFailureCount() == 1;
+                fail("outer failure");
+            }
+            throw new IllegalStateException("closing the scope should have thrown");
+        } catch (AssertionError e) {
+            assert e.getMessage().startsWith("2 soft assertions failed");
+            assert e.getMessage().contains("inner failure");
+            assert e.getMessage().contains("outer failure");
+        }
+    }
+
+    @Test
+    public void testAssertThrowsDoesNotPassAfterSoftFailure() {
+        try {
+            try (SoftAssertions scope = softly()) {
+                assertThrows("it throws", IllegalStateException.class, new Runnable() {
+                    @Override
+                    public void run() {
+                    }
+                });
+                assert scope.hasFailures();
+            }
+        } catch (AssertionError expected) {
+        }
+
+        assert sink.toString().contains("✘ it throws");
+        assert !sink.toString().contains("✔ it throws");
+    }
+}
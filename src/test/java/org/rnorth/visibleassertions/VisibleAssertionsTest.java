@@ -21,8 +21,12 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.concurrent.Callable;
 
 import static org.hamcrest.CoreMatchers.equalTo;
@@ -162,6 +166,72 @@ public class VisibleAssertionsTest {
         assert getCapturedStdOut().contains("'1' after toString() does not equal expected null");
     }
 
+    @Test
+    public void testPassingEqualsAssertionDoesNotStringifyValues() {
+        Object unprintable = new Object() {
+            @Override
+            public String toString() {
+                throw new IllegalStateException("toString() should not be called for a passing assertion");
+            }
+        };
+        assertEquals("it should be equal", unprintable, unprintable);
+        assertSame("it should be the same", unprintable, unprintable);
+        assert getCapturedStdOut().contains("✔ it should be equal");
+        assert getCapturedStdOut().contains("✔ it should be the same");
+    }
+
+    @Test
+    public void testNullMessagesAreAccepted() {
+        // These calls compiled against the original String signatures, so must not become ambiguous
+        assertTrue(null, true);
+        assertFalse(null, false);
+        assertEquals(null, "a", "a");
+        assertNull(null, null);
+        assertNotNull(null, "a");
+        assert getCapturedStdOut().contains("✔ null");
+    }
+
+    @Test
+    public void testSuppliedMessageEqualsAssertion() {
+        assertEqualsLazily(new MessageSupplier() {
+            public String get() {
+                return "it should be equal";
+            }
+        }, "A", "A");
+        assert getCapturedStdOut().contains("✔ it should be equal");
+    }
+
+    @Test
+    public void testFailingSuppliedMessageEqualsAssertion() {
+        try {
+            assertEqualsLazily(new MessageSupplier() {
+                public String get() {
+                    return "it should be equal";
+                }
+            }, "B", "A");
+            failIfReachedHere();
+        } catch (AssertionError expected) {
+        }
+        assert getCapturedStdOut().contains("✘ it should be equal");
+        assert getCapturedStdOut().contains("'A' does not equal expected 'B'");
+    }
+
+    @Test
+    public void testSuppliedMessageIsNotBuiltWhenPassesAreSilenced() {
+        System.setProperty("visibleassertions.silence.passes", "true");
+        reconfigure();
+        try {
+            assertTrueLazily(new MessageSupplier() {
+                public String get() {
+                    throw new IllegalStateException("message should not be built for a silenced pass");
+                }
+            }, true);
+        } finally {
+            System.setProperty("visibleassertions.silence.passes", "false");
+            reconfigure();
+        }
+    }
+
     @Test
     public void testNotEqualsAssertion() {
         try {
@@ -348,6 +418,14 @@ public class VisibleAssertionsTest {
         assert getCapturedStdOut().contains("  ┈┈┈┈ This is the name of an indented context ┈┈┈┈┈");
     }
 
+    @Test
+    public void testContextStatementFillsTerminalWidth() {
+        context("This is the name of a new context");
+        String line = getCapturedStdOut().replaceAll("\u001B\\[[0-9;]*m", "").trim();
+        assert line.length() == AnsiSupport.terminalWidth() : "context line spans the terminal width";
+        assert line.endsWith("┈┈┈┈");
+    }
+
     @Test
     public void testAssertThrowsWhenNoException() {
         try {
@@ -398,9 +476,236 @@ public class VisibleAssertionsTest {
         assert getCapturedStdOut().contains("ArrayIndexOutOfBoundsException was thrown instead of NullPointerException");
     }
 
+    @Test
+    public void testAssertThrowsReturnsException() {
+        IllegalStateException thrown = assertThrows("It throws", IllegalStateException.class, ThrowsMatch.EXACT, new Runnable() {
+            public void run() {
+                throw new IllegalStateException("the detail");
+            }
+        });
+
+        assert thrown.getMessage().equals("the detail");
+        assert getCapturedStdOut().contains("✔ It throws");
+    }
+
+    @Test
+    public void testOriginalAssertThrowsSignaturesAreUnchanged() throws NoSuchMethodException {
+        // Callers compiled against earlier releases link against these exact signatures
+        assert VisibleAssertions.class.getMethod("assertThrows", String.class, Class.class, Callable.class).getReturnType() == void.class;
+        assert VisibleAssertions.class.getMethod("assertThrows", String.class, Class.class, Runnable.class).getReturnType() == void.class;
+    }
+
+    @Test
+    public void testAssertThrowsMatchingSubclass() {
+        RuntimeException thrown = assertThrows("It throws a runtime exception", RuntimeException.class, ThrowsMatch.SUBCLASS, new Callable<Object>() {
+            public Object call() {
+                throw new IllegalArgumentException();
+            }
+        });
+        assert thrown instanceof IllegalArgumentException;
+
+        try {
+            assertThrows("It throws a runtime exception", RuntimeException.class, new Callable<Object>() {
+                public Object call() {
+                    throw new IllegalArgumentException();
+                }
+            });
+            failIfReachedHere();
+        } catch (AssertionError expected) {
+        }
+        assert getCapturedStdOut().contains("IllegalArgumentException was thrown instead of RuntimeException");
+    }
+
+    @Test
+    public void testAssertThrowsMatchingCause() {
+        final IOException cause = new IOException("disk full");
+        IOException thrown = assertThrows("It fails because of IO", IOException.class, ThrowsMatch.CAUSE, new Runnable() {
+            public void run() {
+                throw new IllegalStateException("wrapped", new RuntimeException(cause));
+            }
+        });
+        assert thrown == cause;
+
+        try {
+            assertThrows("It fails because of IO", IOException.class, ThrowsMatch.CAUSE, new Runnable() {
+                public void run() {
+                    throw new IllegalStateException("no cause");
+                }
+            });
+            failIfReachedHere();
+        } catch (AssertionError expected) {
+        }
+        assert getCapturedStdOut().contains("IllegalStateException was thrown instead of IOException or an exception caused by one");
+    }
+
+    @Test
+    public void testAssertThrowsDoesNotDisguiseUnexpectedErrors() {
+        try {
+            assertThrows("It throws", IllegalStateException.class, new Runnable() {
+                public void run() {
+                    assertTrue("a nested assertion", false);
+                }
+            });
+            failIfReachedHere();
+        } catch (AssertionError e) {
+            assert e.getMessage().equals("a nested assertion");
+        }
+        assert !getCapturedStdOut().contains("✘ It throws");
+    }
+
+    @Test
+    public void testAssertThrowsReportsReturnedValue() {
+        try {
+            assertThrows("It throws", IllegalStateException.class, new Callable<String>() {
+                public String call() {
+                    return "a value";
+                }
+            });
+            failIfReachedHere();
+        } catch (AssertionError e) {
+            assert e.getMessage().endsWith("No exception was thrown (expected IllegalStateException but 'a value' was returned instead)") : e.getMessage();
+        }
+    }
+
+    @Test
+    public void testArrayEqualsAssertion() {
+        assertArrayEquals("int arrays are equal", new int[]{1, 2, 3}, new int[]{1, 2, 3});
+        assertArrayEquals("long arrays are equal", new long[]{1L, 2L}, new long[]{1L, 2L});
+        assertArrayEquals("double arrays are equal", new double[]{1.5, Double.NaN}, new double[]{1.5, Double.NaN});
+        assertArrayEquals("byte arrays are equal", new byte[]{1, 2}, new byte[]{1, 2});
+        assertArrayEquals("object arrays are equal", new Object[]{"A", null}, new Object[]{"A", null});
+        assertArrayEquals("null arrays are equal", (int[]) null, null);
+        assert getCapturedStdOut().contains("✔ int arrays are equal");
+        assert getCapturedStdOut().contains("✔ object arrays are equal");
+        assert getCapturedStdOut().contains("✔ null arrays are equal");
+    }
+
+    @Test
+    public void testArrayEqualsShowsWindowAroundFirstDifference() {
+        int[] expected = new int[100];
+        int[] actual = new int[100];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = i;
+            actual[i] = i;
+        }
+        actual[50] = -1;
+        actual[60] = -1;
+
+        try {
+            assertArrayEquals("arrays should be equal", expected, actual);
+            failIfReachedHere();
+        } catch (AssertionError e) {
+            assert e.getMessage().endsWith("differs at index 50: expected [..., 47, 48, 49, >50<, 51, 52, 53, ...] but was [..., 47, 48, 49, >-1<, 51, 52, 53, ...]") : e.getMessage();
+        }
+        assert getCapturedStdOut().contains("✘ arrays should be equal");
+    }
+
+    @Test
+    public void testArrayEqualsWithDifferentLengths() {
+        try {
+            assertArrayEquals("arrays should be equal", new long[]{1, 2, 3}, new long[]{1, 2});
+            failIfReachedHere();
+        } catch (AssertionError e) {
+            assert e.getMessage().endsWith("actual has only 2 elements: expected [1, 2, >3<] but was [1, 2]") : e.getMessage();
+        }
+
+        try {
+            assertArrayEquals("arrays should be equal", new byte[]{1}, new byte[]{1, 2});
+            failIfReachedHere();
+        } catch (AssertionError e) {
+            assert e.getMessage().endsWith("actual has more than the expected 1 element: expected [1] but was [1, >2<]") : e.getMessage();
+        }
+
+        try {
+            assertArrayEquals("arrays should be equal", new double[]{1.0}, null);
+            failIfReachedHere();
+        } catch (AssertionError e) {
+            assert e.getMessage().endsWith("actual is null") : e.getMessage();
+        }
+    }
+
+    @Test
+    public void testIterableEqualsAssertion() {
+        assertIterableEquals("lists are equal", Arrays.asList("A", "B"), new ArrayList<String>(Arrays.asList("A", "B")));
+        assert getCapturedStdOut().contains("✔ lists are equal");
+
+        try {
+            assertIterableEquals("lists should be equal", Arrays.asList("A", "B", "C", "D", "E"), Arrays.asList("A", "B", "X", "D", "E"));
+            failIfReachedHere();
+        } catch (AssertionError e) {
+            assert e.getMessage().endsWith("differs at index 2: expected [A, B, >C<, D, E] but was [A, B, >X<, D, E]") : e.getMessage();
+        }
+
+        try {
+            assertIterableEquals("lists should be equal", Arrays.asList(1, 2, 3, 4, 5, 6), Arrays.asList(1, 2, 3, 4, 5));
+            failIfReachedHere();
+        } catch (AssertionError e) {
+            assert e.getMessage().endsWith("actual has only 5 elements: expected [..., 3, 4, 5, >6<] but was [..., 3, 4, 5]") : e.getMessage();
+        }
+    }
+
+    @Test
+    public void testIterableEqualsStopsAtFirstDifference() {
+        final int size = 1000000;
+        Iterable<Integer> expected = counting(size, -1);
+        Iterable<Integer> actual = counting(size, 10);
+
+        try {
+            assertIterableEquals("sequences should be equal", expected, actual);
+            failIfReachedHere();
+        } catch (AssertionError e) {
+            assert e.getMessage().endsWith("differs at index 10: expected [..., 7, 8, 9, >10<, 11, 12, 13, ...] but was [..., 7, 8, 9, >-1<, 11, 12, 13, ...]") : e.getMessage();
+        }
+    }
+
+    @Test
+    public void testContainsAllAssertion() {
+        assertContainsAll("all are present", Arrays.asList("C", "A"), Arrays.asList("A", "B", "C"));
+        assert getCapturedStdOut().contains("✔ all are present");
+
+        try {
+            assertContainsAll("all should be present", Arrays.asList("A", "D", "E"), Arrays.asList("A", "B", "C"));
+            failIfReachedHere();
+        } catch (AssertionError e) {
+            assert e.getMessage().endsWith("'D' (expected element 1) was not found") : e.getMessage();
+        }
+    }
+
+    /*
+     * An iterable of 0 .. size - 1 which is not backed by a collection, with the element at one index replaced by -1
+     */
+    private static Iterable<Integer> counting(final int size, final int replacedIndex) {
+        return new Iterable<Integer>() {
+            @Override
+            public Iterator<Integer> iterator() {
+                return new Iterator<Integer>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < size;
+                    }
+
+                    @Override
+                    public Integer next() {
+                        int value = next == replacedIndex ? -1 : next;
+                        next++;
+                        return value;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
     @Test
     public void testSilencingOfPasses() {
         System.setProperty("visibleassertions.silence.passes", "true");
+        reconfigure();
 
         try {
             pass("Something passed");
@@ -412,11 +717,13 @@ public class VisibleAssertionsTest {
         assert getCapturedStdOut().contains("Something failed");
 
         System.setProperty("visibleassertions.silence.passes", "false");
+        reconfigure();
     }
 
     @Test
     public void testSilencingOfFailures() {
         System.setProperty("visibleassertions.silence.failures", "true");
+        reconfigure();
 
         try {
             pass("Something passed");
@@ -428,11 +735,13 @@ public class VisibleAssertionsTest {
         assert !getCapturedStdOut().contains("Something failed");
 
         System.setProperty("visibleassertions.silence.failures", "false");
+        reconfigure();
     }
 
     @Test
     public void testSilencingOfEverything() {
         System.setProperty("visibleassertions.silence", "true");
+        reconfigure();
 
         try {
             pass("Something passed");
@@ -444,6 +753,7 @@ public class VisibleAssertionsTest {
         assert !getCapturedStdOut().contains("Something failed");
 
         System.setProperty("visibleassertions.silence", "false");
+        reconfigure();
     }
 
     private void failIfReachedHere() {